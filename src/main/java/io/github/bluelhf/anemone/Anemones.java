@@ -1,25 +1,44 @@
 package io.github.bluelhf.anemone;
 
+import io.github.bluelhf.anemone.config.ConfiguredAnemone;
+import io.github.bluelhf.anemone.config.MenuDefinition;
+import io.github.bluelhf.anemone.config.MenuLoader;
 import io.github.bluelhf.anemone.gui.Anemone;
+import io.github.bluelhf.anemone.gui.Display;
+import io.github.bluelhf.anemone.gui.InventoryDisplay;
 import io.github.bluelhf.anemone.gui.ViewContext;
+import io.github.bluelhf.anemone.gui.VirtualDisplay;
+import io.github.bluelhf.anemone.gui.WindowTransport;
+import io.github.bluelhf.anemone.util.Heads;
+import io.github.bluelhf.anemone.util.RateLimit;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.HumanEntity;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.ClickType;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+import java.util.logging.Level;
 
 /**
  * Anemones is a handler singleton for Anemone subclasses. To use Anemones,
@@ -31,6 +50,17 @@ public class Anemones implements Listener {
     private final HashMap<Class<? extends Anemone>, Anemone> anemoneRegistry = new HashMap<>();
     private final HashMap<HumanEntity, ViewContext> entityContexts = new HashMap<>();
     private final ArrayDeque<Plugin> hosts = new ArrayDeque<>();
+    private @Nullable Heads heads;
+    private @Nullable WindowTransport transport;
+    private final HashMap<HumanEntity, RateLimit.Bucket> viewerBuckets = new HashMap<>();
+    private final HashMap<Anemone, RateLimit.Bucket> anemoneBuckets = new HashMap<>();
+    private @Nullable RateLimit viewerRateLimit = new RateLimit(10, 20);
+    private int renderDelay = 1;
+    private long idleTimeout = -1;
+    private @Nullable BukkitTask renderTask;
+    private final HashMap<String, ConfiguredAnemone> menus = new HashMap<>();
+    private @Nullable MenuLoader menuLoader;
+    private @Nullable BukkitTask reloadTask;
 
     private Anemones(@NotNull Plugin host) {
         hosts.add(host);
@@ -54,6 +84,7 @@ public class Anemones implements Listener {
         if (instance == null) {
             instance = new Anemones(host);
             Bukkit.getPluginManager().registerEvents(instance, host);
+            instance.scheduleRender();
         } else {
             instance.hosts.add(host);
         }
@@ -110,6 +141,158 @@ public class Anemones implements Listener {
         return instance.open0(entity, anemoneClass);
     }
 
+    /**
+     * Sets the {@link WindowTransport} used to show virtual Anemones. Contexts that are already open keep their transport.
+     * @param transport The transport to use, or null to disable virtual Anemones
+     * @throws IllegalStateException If Anemones isn't initialised
+     * @see Anemone#isVirtual()
+     * */
+    public static void setTransport(@Nullable WindowTransport transport) {
+        checkInit();
+        //noinspection ConstantConditions because we just checked
+        instance.transport = transport;
+    }
+
+    /**
+     * Sets the click rate limit of each viewer. Clicks over the limit are cancelled before they reach the Anemone.
+     * Defaults to 10 clicks per second, with bursts of up to 20 clicks.
+     * @param rateLimit The rate limit to use, or null to disable per-viewer rate limiting
+     * @throws IllegalStateException If Anemones isn't initialised
+     * @see Anemone#getRateLimit()
+     * */
+    public static void setViewerRateLimit(@Nullable RateLimit rateLimit) {
+        checkInit();
+        //noinspection ConstantConditions because we just checked
+        instance.viewerRateLimit = rateLimit;
+        instance.viewerBuckets.clear();
+    }
+
+    /**
+     * Sets how many ticks pass between renders of updates requested with {@link ViewContext#requestUpdate()}.
+     * All updates requested between two renders are coalesced into one. Defaults to 1.
+     * @param ticks The delay between renders in ticks
+     * @throws IllegalStateException If Anemones isn't initialised
+     * @throws IllegalArgumentException If the delay isn't positive
+     * */
+    public static void setRenderDelay(int ticks) {
+        checkInit();
+        if (ticks <= 0) throw new IllegalArgumentException("Render delay must be positive.");
+        //noinspection ConstantConditions because we just checked
+        instance.renderDelay = ticks;
+        instance.scheduleRender();
+    }
+
+    /**
+     * Sets how long a context may go without interaction before its rendered items are released.
+     * Released items are rendered again when the viewer next interacts with the context.
+     * This only applies to virtual Anemones: an open inventory can't be emptied without the viewer seeing it,
+     * and inventory-backed contexts are discarded as soon as they are closed. Disabled by default.
+     * @param timeout The idle timeout, or null to disable releasing idle contexts
+     * @throws IllegalStateException If Anemones isn't initialised
+     * @see ViewContext#shed()
+     * */
+    public static void setIdleTimeout(@Nullable Duration timeout) {
+        checkInit();
+        //noinspection ConstantConditions because we just checked
+        instance.idleTimeout = timeout != null ? timeout.toMillis() : -1;
+    }
+
+    /**
+     * Handles a click in a virtual window. Called by {@link WindowTransport} implementations on the main thread.
+     * Does nothing if the window doesn't belong to an open virtual Anemone.
+     * @param viewer The entity that clicked
+     * @param windowId The ID of the window that was clicked in
+     * @param rawSlot The slot that was clicked
+     * @param click The type of the click
+     * @throws IllegalStateException If Anemones isn't initialised
+     * */
+    public static void onVirtualClick(@NotNull HumanEntity viewer, int windowId, int rawSlot, @NotNull ClickType click) {
+        checkInit();
+        //noinspection ConstantConditions because we just checked
+        ViewContext context = instance.entityContexts.get(viewer);
+        if (context == null || !context.ownsWindow(windowId)) return;
+        if (!instance.allowClick(context)) {
+            context.resync();
+            return;
+        }
+        context.onClick(rawSlot, click);
+    }
+
+    /**
+     * Handles the client closing a virtual window. Called by {@link WindowTransport} implementations on the main thread.
+     * Does nothing if the window doesn't belong to an open virtual Anemone.
+     * @param viewer The entity that closed the window
+     * @param windowId The ID of the window that was closed
+     * @throws IllegalStateException If Anemones isn't initialised
+     * */
+    public static void onVirtualClose(@NotNull HumanEntity viewer, int windowId) {
+        checkInit();
+        //noinspection ConstantConditions because we just checked
+        ViewContext context = instance.entityContexts.get(viewer);
+        if (context == null || !context.ownsWindow(windowId)) return;
+        context.onClose();
+        instance.entityContexts.remove(viewer);
+    }
+
+    /**
+     * Returns the player head cache of Anemones, used to create player heads without blocking the main thread.
+     * The cache is created and loaded on first use, keeping up to 1024 textures for 6 hours by default.
+     * @return The {@link Heads} cache
+     * @throws IllegalStateException If Anemones isn't initialised
+     * @see Heads#setMaxSize(int)
+     * @see Heads#setTtl(Duration)
+     * */
+    public static @NotNull Heads getHeads() {
+        checkInit();
+        //noinspection ConstantConditions because we just checked
+        return instance.getHeads0();
+    }
+
+    /**
+     * Opens a menu loaded with {@link Anemones#loadMenus(Path)} to the given {@link HumanEntity}.
+     * @param entity The entity to open the menu to
+     * @param menu The ID of the menu to open
+     * @throws IllegalStateException If Anemones isn't initialised
+     * @throws IllegalArgumentException If no menu with the given ID is loaded
+     * @return The resulting {@link ViewContext}
+     * */
+    public static @NotNull ViewContext open(HumanEntity entity, @NotNull String menu) {
+        checkInit();
+        //noinspection ConstantConditions because we just checked
+        ConfiguredAnemone anemone = instance.menus.get(menu);
+        if (anemone == null) throw new IllegalArgumentException("Menu " + menu + " is not loaded.");
+        return instance.open0(entity, anemone, 0);
+    }
+
+    /**
+     * Returns whether a menu with the given ID is loaded
+     * @param menu The ID of the menu
+     * @return Whether a menu with the given ID is loaded
+     * @throws IllegalStateException If Anemones isn't initialised
+     * @see Anemones#loadMenus(Path)
+     * */
+    public static boolean isMenuLoaded(@NotNull String menu) {
+        checkInit();
+        //noinspection ConstantConditions because we just checked
+        return instance.menus.containsKey(menu);
+    }
+
+    /**
+     * Loads the menu files of the given directory, and reloads them whenever they change.
+     * Parsed menus are cached in the directory, so unchanged menus load quickly on later starts.
+     * Open contexts of a reloaded menu are updated in place, or reopened if the menu's size or title changed.
+     * Replaces any previously loaded directory.
+     * @param directory The directory to load menu files from
+     * @throws IllegalStateException If Anemones isn't initialised
+     * @see MenuDefinition
+     * @see Anemones#open(HumanEntity, String)
+     * */
+    public static void loadMenus(@NotNull Path directory) {
+        checkInit();
+        //noinspection ConstantConditions because we just checked
+        instance.loadMenus0(directory);
+    }
+
     /**
      * Throws an {@link IllegalStateException} if Anemones isn't initialised
      * @throws IllegalStateException When Anemones isn't initialised
@@ -151,6 +334,7 @@ public class Anemones implements Listener {
     private void unregister0(Class<? extends Anemone> anemoneClass) {
         Anemone anemone;
         if ((anemone = anemoneRegistry.remove(anemoneClass)) != null) {
+            anemoneBuckets.remove(anemone);
             anemone.onUnregister();
         }
     }
@@ -163,46 +347,250 @@ public class Anemones implements Listener {
         Anemone anemone = anemoneRegistry.get(anemoneClass);
         if (anemone == null)
             throw new IllegalArgumentException("Anemone subclass " + anemoneClass.getSimpleName() + " must be registered before use.");
-        ViewContext context = new ViewContext(entity, anemone);
-        entityContexts.put(entity, context);
+        return open0(entity, anemone, 0);
+    }
+
+    /**
+     * Opens the given Anemone to the given entity on the given page, closing the entity's previous context.
+     * @param entity The entity to open the Anemone to
+     * @param anemone The Anemone to open
+     * @param page The page to open the Anemone on
+     * @return The resulting {@link ViewContext}
+     * @hidden Internal use only.
+     * */
+    private @NotNull ViewContext open0(HumanEntity entity, @NotNull Anemone anemone, int page) {
+        Function<ViewContext, Display> displayFactory = InventoryDisplay::new;
+        if (anemone.isVirtual()) {
+            WindowTransport transport = this.transport;
+            if (transport == null)
+                throw new IllegalStateException("Anemone subclass " + anemone.getClass().getSimpleName() + " is virtual, but no WindowTransport is set.");
+            displayFactory = viewContext -> new VirtualDisplay(viewContext, transport);
+        }
+
+        // Created first, so the previous context stays in place if the display can't be created.
+        ViewContext context = new ViewContext(entity, anemone, displayFactory, page);
+
+        // The previous context's close event won't be routed to it once it is replaced.
+        ViewContext previous = entityContexts.put(entity, context);
+        if (previous != null) previous.onClose();
         context.open();
         return context;
     }
 
+    /**
+     * @see Anemones#getHeads()
+     * @hidden Internal use only.
+     * */
+    private @NotNull Heads getHeads0() {
+        if (heads == null) {
+            Plugin host = getHost();
+            heads = new Heads(
+                    task -> Bukkit.getScheduler().runTaskAsynchronously(getHost(), task),
+                    task -> Bukkit.getScheduler().runTask(getHost(), task),
+                    host.getDataFolder().toPath().resolve("anemone-heads.cache"),
+                    1024, Duration.ofHours(6)
+            );
+            try {
+                heads.load();
+            } catch (IOException e) {
+                host.getLogger().log(Level.WARNING, "Could not load the player head cache", e);
+            }
+        }
+        return heads;
+    }
+
+    /**
+     * @see Anemones#loadMenus(Path)
+     * @hidden Internal use only.
+     * */
+    private void loadMenus0(@NotNull Path directory) {
+        menuLoader = new MenuLoader(directory, directory.resolve(".anemone-menus.bin"), getHost().getLogger());
+        applyMenus(menuLoader.poll());
+        scheduleReload();
+    }
+
+    /**
+     * (Re)schedules the task that polls the menu directory for changes, using the current host.
+     * @hidden Internal use only.
+     * */
+    private void scheduleReload() {
+        if (reloadTask != null) reloadTask.cancel();
+        MenuLoader loader = menuLoader;
+        if (loader == null) return;
+
+        Plugin host = getHost();
+        reloadTask = Bukkit.getScheduler().runTaskTimerAsynchronously(host, () -> {
+            MenuLoader.Changes changes = loader.poll();
+            if (!changes.isEmpty()) Bukkit.getScheduler().runTask(host, () -> applyMenus(changes));
+        }, 20, 20);
+    }
+
+    /**
+     * Compiles changed menus, swapping their layouts under any open contexts, and closes contexts of removed menus.
+     * @param changes The changes to apply
+     * @hidden Internal use only.
+     * */
+    private void applyMenus(@NotNull MenuLoader.Changes changes) {
+        for (String id : changes.getRemoved()) {
+            ConfiguredAnemone anemone = menus.remove(id);
+            if (anemone == null) continue;
+            for (ViewContext context : contextsOf(anemone)) {
+                context.close();
+                // Virtual displays get no close event, so they are removed here.
+                if (entityContexts.get(context.getViewer()) == context) {
+                    entityContexts.remove(context.getViewer());
+                    context.onClose();
+                }
+            }
+        }
+
+        for (MenuDefinition definition : changes.getUpdated().values()) {
+            ConfiguredAnemone anemone = menus.get(definition.getId());
+            try {
+                if (anemone == null) {
+                    menus.put(definition.getId(), new ConfiguredAnemone(getHost(), definition));
+                    continue;
+                }
+
+                boolean reopen = anemone.setDefinition(definition);
+                for (ViewContext context : contextsOf(anemone)) {
+                    if (reopen) {
+                        open0(context.getViewer(), anemone, context.getPage());
+                    } else {
+                        context.requestUpdate();
+                    }
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                getHost().getLogger().warning("Could not compile menu " + definition.getId() + ": " + e.getMessage());
+            }
+        }
+
+        // Menus may be added in any order, so links between them are only checked once every change is applied.
+        for (ConfiguredAnemone anemone : menus.values()) {
+            for (String target : anemone.getDefinition().getOpenedMenus()) {
+                if (!menus.containsKey(target))
+                    getHost().getLogger().warning("Menu " + anemone.getDefinition().getId() + " opens menu " + target + ", which is not loaded.");
+            }
+        }
+    }
+
+    /**
+     * Returns the open contexts of the given Anemone.
+     * @param anemone The Anemone to find contexts of
+     * @return A copy of the open contexts of the Anemone
+     * @hidden Internal use only.
+     * */
+    private @NotNull List<ViewContext> contextsOf(@NotNull Anemone anemone) {
+        List<ViewContext> contexts = new ArrayList<>();
+        for (ViewContext context : entityContexts.values()) {
+            if (context.getAnemone() == anemone) contexts.add(context);
+        }
+        return contexts;
+    }
+
+    /**
+     * Takes a click from the rate limits of the given context's viewer and Anemone.
+     * @param context The context that was clicked in
+     * @return Whether the click is within the rate limits
+     * @hidden Internal use only.
+     * */
+    private boolean allowClick(@NotNull ViewContext context) {
+        RateLimit viewerLimit = viewerRateLimit;
+        if (viewerLimit != null && !viewerBuckets.computeIfAbsent(context.getViewer(), viewer -> viewerLimit.newBucket()).tryAcquire())
+            return false;
+
+        RateLimit anemoneLimit = context.getAnemone().getRateLimit();
+        return anemoneLimit == null || anemoneBuckets.computeIfAbsent(context.getAnemone(), anemone -> anemoneLimit.newBucket()).tryAcquire();
+    }
+
+    /**
+     * (Re)schedules the task that renders requested updates, using the current host and render delay.
+     * @hidden Internal use only.
+     * */
+    private void scheduleRender() {
+        if (renderTask != null) renderTask.cancel();
+        renderTask = Bukkit.getScheduler().runTaskTimer(getHost(), this::render, renderDelay, renderDelay);
+    }
+
+    /**
+     * Renders every context that has requested an update since the last render,
+     * and releases the items of idle virtual contexts.
+     * @hidden Internal use only.
+     * */
+    private void render() {
+        long now = System.currentTimeMillis();
+        for (ViewContext context : entityContexts.values()) {
+            if (context.isShed()) continue;
+            if (idleTimeout >= 0 && now - context.getLastInteraction() > idleTimeout) context.shed();
+            // Inventory-backed contexts refuse to be shed while open, so they still need their updates.
+            if (!context.isShed()) context.flush();
+        }
+    }
+
+    /**
+     * Returns the host plugin that tasks should be scheduled with.
+     * @return The first host plugin that is still enabled
+     * @hidden Internal use only.
+     * */
+    private @NotNull Plugin getHost() {
+        Plugin host = hosts.peek();
+        if (host == null) throw new IllegalStateException("Anemones has no enabled hosts.");
+        return host;
+    }
+
     @EventHandler
     private void onDisable(@NotNull PluginDisableEvent event) {
         hosts.remove(event.getPlugin());
         if (hosts.size() == 0) {
             close();
+        } else {
+            if (renderTask != null && renderTask.getOwner().equals(event.getPlugin())) scheduleRender();
+            if (reloadTask != null && reloadTask.getOwner().equals(event.getPlugin())) scheduleReload();
         }
     }
 
     @EventHandler
     private void onClick(@NotNull InventoryClickEvent event) {
-        if (!entityContexts.containsKey(event.getWhoClicked())) return;
         ViewContext context = entityContexts.get(event.getWhoClicked());
+        if (context == null || !context.owns(event.getInventory())) return;
+        if (!allowClick(context)) {
+            event.setCancelled(true);
+            return;
+        }
         context.onClick(event);
     }
 
     @EventHandler
     private void onDrag(@NotNull InventoryDragEvent event) {
-        if (!entityContexts.containsKey(event.getWhoClicked())) return;
         ViewContext context = entityContexts.get(event.getWhoClicked());
+        if (context == null || !context.owns(event.getInventory())) return;
+        if (!allowClick(context)) {
+            event.setCancelled(true);
+            return;
+        }
         context.onDrag(event);
     }
 
     @EventHandler
     private void onClose(@NotNull InventoryCloseEvent event) {
-        if (!entityContexts.containsKey(event.getPlayer())) return;
         ViewContext context = entityContexts.get(event.getPlayer());
+        if (context == null || !context.owns(event.getInventory())) return;
         context.onClose();
         entityContexts.remove(context.getViewer());
     }
 
+    @EventHandler
+    private void onQuit(@NotNull PlayerQuitEvent event) {
+        // Virtual windows get no close event when their viewer disconnects, so contexts are always released here.
+        ViewContext context = entityContexts.remove(event.getPlayer());
+        viewerBuckets.remove(event.getPlayer());
+        if (context != null) context.onClose();
+    }
+
     @EventHandler
     private void onOpen(@NotNull InventoryOpenEvent event) {
-        if (!entityContexts.containsKey(event.getPlayer())) return;
         ViewContext context = entityContexts.get(event.getPlayer());
+        if (context == null || !context.owns(event.getInventory())) return;
         context.onOpen();
     }
 
@@ -211,6 +599,16 @@ public class Anemones implements Listener {
      * @hidden Internal use only.
      * */
     private void close() {
+        if (renderTask != null) renderTask.cancel();
+        if (reloadTask != null) reloadTask.cancel();
+        if (heads != null) {
+            heads.close();
+            try {
+                heads.save();
+            } catch (IOException e) {
+                Bukkit.getLogger().log(Level.WARNING, "Could not save the player head cache", e);
+            }
+        }
         HandlerList.unregisterAll(this);
         hosts.clear();
         instance = null;
@@ -0,0 +1,253 @@
+package io.github.bluelhf.anemone.config;
+
+import io.github.bluelhf.anemone.Anemones;
+import io.github.bluelhf.anemone.gui.Anemone;
+import io.github.bluelhf.anemone.gui.Index;
+import io.github.bluelhf.anemone.gui.ViewContext;
+import io.github.bluelhf.anemone.util.Items;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A ConfiguredAnemone is an Anemone compiled from a {@link MenuDefinition}.
+ * Its items are built once when the definition is compiled, and clicks on them run the item's actions.
+ * All clicks and drags in a ConfiguredAnemone are cancelled.
+ * <p>
+ * The supported actions are {@code close}, {@code next}, {@code previous}, {@code reset},
+ * {@code open <menu>}, {@code command <command>} and {@code message <text>}.
+ * @see Anemones#loadMenus(java.nio.file.Path)
+ * */
+@SuppressWarnings("unused") // API
+public class ConfiguredAnemone extends Anemone {
+    private static final LegacyComponentSerializer SERIALIZER = LegacyComponentSerializer.legacyAmpersand();
+    private static final ItemStack AIR = new ItemStack(Material.AIR);
+    private static final Set<String> ACTIONS = Set.of("close", "next", "previous", "reset", "open", "command", "message");
+    private static final Set<String> ACTIONS_WITH_ARGUMENT = Set.of("open", "command", "message");
+
+    private final @NotNull Plugin plugin;
+    private @NotNull Compiled compiled;
+
+    /**
+     * Creates a new ConfiguredAnemone.
+     * @param plugin The plugin to schedule deferred actions with
+     * @param definition The definition to compile
+     * @throws IllegalArgumentException If the definition has an unknown action
+     * @throws IllegalStateException If the definition's template has no valid type
+     * */
+    public ConfiguredAnemone(@NotNull Plugin plugin, @NotNull MenuDefinition definition) {
+        this.plugin = plugin;
+        this.compiled = compile(definition);
+        getType();
+    }
+
+    /**
+     * Returns the definition this ConfiguredAnemone was compiled from
+     * @return The definition this ConfiguredAnemone was compiled from
+     * */
+    public @NotNull MenuDefinition getDefinition() {
+        return compiled.definition;
+    }
+
+    /**
+     * Compiles the given definition and swaps it in place of the current one.
+     * Open contexts keep working, but must be reopened if the returned value is true.
+     * @param definition The definition to compile
+     * @return Whether the new definition changed the size, type or title of this ConfiguredAnemone
+     * @throws IllegalArgumentException If the definition has an unknown action
+     * @throws IllegalStateException If the definition's template has no valid type
+     * */
+    public boolean setDefinition(@NotNull MenuDefinition definition) {
+        Compiled previous = compiled;
+        Compiled next = compile(definition);
+        int previousSize = getSize();
+        InventoryType previousType = getType();
+
+        compiled = next;
+        InventoryType type;
+        try {
+            // Validates the new template before anything is compared.
+            type = getType();
+        } catch (IllegalStateException e) {
+            compiled = previous;
+            throw e;
+        }
+        return previousSize != getSize()
+                || previousType != type
+                || !Objects.equals(previous.definition.getTitle(), definition.getTitle());
+    }
+
+    @Override
+    public @NotNull List<String> getTemplate() {
+        return compiled.definition.getTemplate();
+    }
+
+    @Override
+    public @NotNull ItemStack itemFor(Index index, ViewContext context) {
+        return compiled.items.getOrDefault(index.getChar(), AIR);
+    }
+
+    @Override
+    public @Nullable Component getTitle() {
+        return compiled.title;
+    }
+
+    /**
+     * Cancels every click, including clicks in the viewer's own inventory,
+     * so items can't be collected from or moved into the menu.
+     * */
+    @Override
+    protected void onRawClick(ViewContext context, InventoryClickEvent event) {
+        event.setCancelled(true);
+    }
+
+    @Override
+    protected void onClick(Index index, ViewContext context, ClickType click) {
+        List<Consumer<ViewContext>> actions = compiled.actions.get(index.getChar());
+        if (actions == null) return;
+        for (Consumer<ViewContext> action : actions) {
+            action.accept(context);
+        }
+    }
+
+    @Override
+    protected void onDrag(List<Index> indices, ViewContext context, InventoryDragEvent event) {
+        event.setCancelled(true);
+    }
+
+    /**
+     * Compiles the given definition into items and actions.
+     * @param definition The definition to compile
+     * @return The compiled definition
+     * @throws IllegalArgumentException If the definition has an unknown action
+     * @hidden Internal use only.
+     * */
+    private @NotNull Compiled compile(@NotNull MenuDefinition definition) {
+        Compiled compiled = new Compiled(definition);
+        for (Map.Entry<Character, MenuDefinition.ItemDefinition> entry : definition.getItems().entrySet()) {
+            MenuDefinition.ItemDefinition item = entry.getValue();
+            Material material = Material.matchMaterial(item.getMaterial());
+            if (material == null)
+                throw new IllegalArgumentException("Menu " + definition.getId() + " has an unknown material: " + item.getMaterial());
+
+            List<Component> lore = new ArrayList<>();
+            for (String line : item.getLore()) {
+                lore.add(text(line));
+            }
+            compiled.items.put(entry.getKey(), material.isAir() ? AIR : Items.of(material, item.getAmount())
+                    .modifyMeta(meta -> {
+                        if (item.getName() != null) meta.displayName(text(item.getName()));
+                        if (!lore.isEmpty()) meta.lore(lore);
+                    })
+                    .build());
+
+            List<Consumer<ViewContext>> actions = new ArrayList<>();
+            for (String action : item.getActions()) {
+                actions.add(compileAction(definition, action));
+            }
+            if (!actions.isEmpty()) compiled.actions.put(entry.getKey(), actions);
+        }
+        return compiled;
+    }
+
+    /**
+     * Compiles a single action of the given definition.
+     * Actions that close or open inventories are deferred by a tick, since they can't run inside inventory events.
+     * @param definition The definition that the action belongs to
+     * @param action The action to compile
+     * @return The compiled action
+     * @throws IllegalArgumentException If the action is unknown or is missing its argument
+     * @hidden Internal use only.
+     * */
+    private @NotNull Consumer<ViewContext> compileAction(@NotNull MenuDefinition definition, @NotNull String action) {
+        checkAction(definition.getId(), action);
+        String[] parts = action.trim().split(" ", 2);
+        String argument = parts.length > 1 ? parts[1] : "";
+        switch (parts[0].toLowerCase(Locale.ROOT)) {
+            case "close":
+                return context -> Bukkit.getScheduler().runTask(plugin, context::close);
+            case "next":
+                return ViewContext::next;
+            case "previous":
+                return ViewContext::previous;
+            case "reset":
+                return ViewContext::reset;
+            case "open":
+                return context -> Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (Anemones.isMenuLoaded(argument)) {
+                        Anemones.open(context.getViewer(), argument);
+                    } else {
+                        plugin.getLogger().warning("Menu " + definition.getId() + " tried to open menu " + argument + ", which is not loaded.");
+                    }
+                });
+            case "command":
+                return context -> Bukkit.getScheduler().runTask(plugin, () -> Bukkit.dispatchCommand(context.getViewer(), argument));
+            case "message":
+                Component message = SERIALIZER.deserialize(argument);
+                return context -> context.getViewer().sendMessage(message);
+            default:
+                throw new IllegalArgumentException("Menu " + definition.getId() + " has an unknown action: " + action);
+        }
+    }
+
+    /**
+     * Checks that the given action is known, and has an argument if it needs one.
+     * @param menu The ID of the menu that the action belongs to
+     * @param action The action to check
+     * @throws IllegalArgumentException If the action is unknown or is missing its argument
+     * @hidden Internal use only.
+     * */
+    static void checkAction(@NotNull String menu, @NotNull String action) {
+        String[] parts = action.trim().split(" ", 2);
+        String name = parts[0].toLowerCase(Locale.ROOT);
+        if (!ACTIONS.contains(name))
+            throw new IllegalArgumentException("Menu " + menu + " has an unknown action: " + action);
+        if (ACTIONS_WITH_ARGUMENT.contains(name) && (parts.length < 2 || parts[1].isBlank()))
+            throw new IllegalArgumentException("Menu " + menu + " has an action without an argument: " + action);
+    }
+
+    /**
+     * Deserializes the given legacy text into a non-italic component.
+     * @param text The text to deserialize
+     * @return The deserialized component
+     * @hidden Internal use only.
+     * */
+    private static @NotNull Component text(@NotNull String text) {
+        return SERIALIZER.deserialize(text).decoration(TextDecoration.ITALIC, false);
+    }
+
+    /**
+     * The compiled form of a {@link MenuDefinition}, swapped as a whole when the definition changes.
+     * @hidden Internal use only.
+     * */
+    private static class Compiled {
+        private final @NotNull MenuDefinition definition;
+        private final @Nullable Component title;
+        private final HashMap<Character, ItemStack> items = new HashMap<>();
+        private final HashMap<Character, List<Consumer<ViewContext>>> actions = new HashMap<>();
+
+        private Compiled(@NotNull MenuDefinition definition) {
+            this.definition = definition;
+            this.title = definition.getTitle() != null ? SERIALIZER.deserialize(definition.getTitle()) : null;
+        }
+    }
+}
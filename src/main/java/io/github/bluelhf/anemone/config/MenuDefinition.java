@@ -0,0 +1,279 @@
+package io.github.bluelhf.anemone.config;
+
+import io.github.bluelhf.anemone.gui.Anemone;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A MenuDefinition is the declarative form of a menu, as read from a menu file.
+ * It contains the menu's title, its template, and an item definition for each character of the template.
+ * <p>
+ * Menu files are YAML files of the following form, where titles, names and lore use {@code &} colour codes:
+ * <pre>
+ * title: "&amp;5Menu"
+ * template:
+ *   - "#########"
+ *   - "#.......&gt;"
+ * items:
+ *   "#":
+ *     material: BLACK_STAINED_GLASS_PANE
+ *     name: " "
+ *   "&gt;":
+ *     material: ARROW
+ *     amount: 1
+ *     name: "&amp;aNext page"
+ *     lore: ["&amp;7Click to go forward"]
+ *     actions: ["next"]
+ * </pre>
+ * @see ConfiguredAnemone
+ * */
+@SuppressWarnings("unused") // API
+public class MenuDefinition {
+    private final @NotNull String id;
+    private final @Nullable String title;
+    private final @NotNull List<String> template;
+    private final @NotNull Map<Character, ItemDefinition> items;
+
+    public MenuDefinition(@NotNull String id, @Nullable String title, @NotNull List<String> template, @NotNull Map<Character, ItemDefinition> items) {
+        this.id = id;
+        this.title = title;
+        this.template = List.copyOf(template);
+        this.items = Collections.unmodifiableMap(new LinkedHashMap<>(items));
+    }
+
+    /**
+     * Parses a MenuDefinition from the given configuration section.
+     * @param id The ID of the menu
+     * @param section The section to parse
+     * @return The parsed MenuDefinition
+     * @throws IllegalArgumentException If the section isn't a valid menu, has an invalid template or has an unknown action
+     * */
+    public static @NotNull MenuDefinition parse(@NotNull String id, @NotNull ConfigurationSection section) {
+        List<String> template = section.getStringList("template");
+        if (template.isEmpty()) throw new IllegalArgumentException("Menu " + id + " has no template.");
+        if (!Anemone.isValidTemplate(template))
+            throw new IllegalArgumentException("Menu " + id + " has a template that is neither 3x3 nor 9 columns wide with at most 6 rows.");
+
+        Map<Character, ItemDefinition> items = new LinkedHashMap<>();
+        ConfigurationSection itemSection = section.getConfigurationSection("items");
+        if (itemSection != null) {
+            for (String key : itemSection.getKeys(false)) {
+                ConfigurationSection item = itemSection.getConfigurationSection(key);
+                if (key.length() != 1 || item == null)
+                    throw new IllegalArgumentException("Item '" + key + "' of menu " + id + " must be a section keyed by a single character.");
+
+                String materialName = item.getString("material");
+                Material material = materialName != null ? Material.matchMaterial(materialName) : null;
+                if (material == null)
+                    throw new IllegalArgumentException("Item '" + key + "' of menu " + id + " has an unknown material: " + materialName);
+
+                List<String> actions = item.getStringList("actions");
+                for (String action : actions) {
+                    ConfiguredAnemone.checkAction(id, action);
+                }
+
+                items.put(key.charAt(0), new ItemDefinition(
+                        material.name(),
+                        item.getInt("amount", 1),
+                        item.getString("name"),
+                        item.getStringList("lore"),
+                        actions
+                ));
+            }
+        }
+
+        return new MenuDefinition(id, section.getString("title"), template, items);
+    }
+
+    /**
+     * Reads a MenuDefinition from its binary form.
+     * @param in The input to read from
+     * @return The read MenuDefinition
+     * @throws IOException If the input couldn't be read
+     * @see MenuDefinition#write(DataOutput)
+     * */
+    public static @NotNull MenuDefinition read(@NotNull DataInput in) throws IOException {
+        String id = in.readUTF();
+        String title = readNullable(in);
+        List<String> template = readList(in);
+        int itemCount = in.readUnsignedShort();
+        Map<Character, ItemDefinition> items = new LinkedHashMap<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.put(in.readChar(), new ItemDefinition(
+                    in.readUTF(),
+                    in.readUnsignedByte(),
+                    readNullable(in),
+                    readList(in),
+                    readList(in)
+            ));
+        }
+        return new MenuDefinition(id, title, template, items);
+    }
+
+    /**
+     * Writes this MenuDefinition in its binary form.
+     * @param out The output to write to
+     * @throws IOException If the output couldn't be written
+     * @see MenuDefinition#read(DataInput)
+     * */
+    public void write(@NotNull DataOutput out) throws IOException {
+        out.writeUTF(id);
+        writeNullable(out, title);
+        writeList(out, template);
+        out.writeShort(items.size());
+        for (Map.Entry<Character, ItemDefinition> entry : items.entrySet()) {
+            ItemDefinition item = entry.getValue();
+            out.writeChar(entry.getKey());
+            out.writeUTF(item.material);
+            out.writeByte(item.amount);
+            writeNullable(out, item.name);
+            writeList(out, item.lore);
+            writeList(out, item.actions);
+        }
+    }
+
+    /**
+     * Returns the ID of this menu, which is the name of its file without the extension
+     * @return The ID of this menu
+     * */
+    public @NotNull String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the title of this menu, or null if it has none
+     * @return The title of this menu, or null if it has none
+     * */
+    public @Nullable String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the template of this menu
+     * @return The template of this menu
+     * */
+    public @NotNull List<String> getTemplate() {
+        return template;
+    }
+
+    /**
+     * Returns the item definitions of this menu, keyed by template character
+     * @return The item definitions of this menu
+     * */
+    public @NotNull Map<Character, ItemDefinition> getItems() {
+        return items;
+    }
+
+    /**
+     * Returns the IDs of the menus that this menu's {@code open} actions open
+     * @return The IDs of the menus that this menu opens
+     * */
+    public @NotNull Set<String> getOpenedMenus() {
+        Set<String> menus = new LinkedHashSet<>();
+        for (ItemDefinition item : items.values()) {
+            for (String action : item.actions) {
+                String[] parts = action.trim().split(" ", 2);
+                if (parts.length > 1 && parts[0].equalsIgnoreCase("open")) menus.add(parts[1]);
+            }
+        }
+        return menus;
+    }
+
+    private static @Nullable String readNullable(@NotNull DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullable(@NotNull DataOutput out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static @NotNull List<String> readList(@NotNull DataInput in) throws IOException {
+        int size = in.readUnsignedShort();
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(in.readUTF());
+        }
+        return list;
+    }
+
+    private static void writeList(@NotNull DataOutput out, @NotNull List<String> list) throws IOException {
+        out.writeShort(list.size());
+        for (String s : list) {
+            out.writeUTF(s);
+        }
+    }
+
+    /**
+     * An ItemDefinition is the declarative form of the item shown for a template character.
+     * */
+    public static class ItemDefinition {
+        private final @NotNull String material;
+        private final int amount;
+        private final @Nullable String name;
+        private final @NotNull List<String> lore;
+        private final @NotNull List<String> actions;
+
+        public ItemDefinition(@NotNull String material, int amount, @Nullable String name, @NotNull List<String> lore, @NotNull List<String> actions) {
+            this.material = material;
+            this.amount = Math.max(1, Math.min(amount, 99));
+            this.name = name;
+            this.lore = List.copyOf(lore);
+            this.actions = List.copyOf(actions);
+        }
+
+        /**
+         * Returns the name of the material of this item
+         * @return The name of the material of this item
+         * */
+        public @NotNull String getMaterial() {
+            return material;
+        }
+
+        /**
+         * Returns the amount of this item
+         * @return The amount of this item
+         * */
+        public int getAmount() {
+            return amount;
+        }
+
+        /**
+         * Returns the display name of this item, or null if it has none
+         * @return The display name of this item, or null if it has none
+         * */
+        public @Nullable String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the lore lines of this item
+         * @return The lore lines of this item
+         * */
+        public @NotNull List<String> getLore() {
+            return lore;
+        }
+
+        /**
+         * Returns the actions that are run when this item is clicked
+         * @return The actions that are run when this item is clicked
+         * @see ConfiguredAnemone
+         * */
+        public @NotNull List<String> getActions() {
+            return actions;
+        }
+    }
+}
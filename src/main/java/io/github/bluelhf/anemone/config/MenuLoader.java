@@ -0,0 +1,238 @@
+package io.github.bluelhf.anemone.config;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * MenuLoader loads {@link MenuDefinition}s from the {@code .yml} files of a directory and tracks changes to them.
+ * Parsed definitions are cached in a binary file, so files that haven't changed since the last run aren't parsed again.
+ * MenuLoader does not touch any Bukkit state, so it may be polled off the main thread.
+ * */
+@SuppressWarnings("unused") // API
+public class MenuLoader {
+    private static final int MAGIC = 0x414E4D4E; // ANMN
+    private static final int VERSION = 2;
+    private static final String EXTENSION = ".yml";
+
+    private final @NotNull Path directory;
+    private final @NotNull Path cacheFile;
+    private final @NotNull Logger logger;
+    private final HashMap<String, Entry> entries = new HashMap<>();
+    private final HashMap<String, Long> failures = new HashMap<>();
+    private boolean cacheRead;
+
+    /**
+     * Creates a new MenuLoader.
+     * @param directory The directory to load menu files from
+     * @param cacheFile The file to cache parsed definitions in
+     * @param logger The logger to report invalid menu files to
+     * */
+    public MenuLoader(@NotNull Path directory, @NotNull Path cacheFile, @NotNull Logger logger) {
+        this.directory = directory;
+        this.cacheFile = cacheFile;
+        this.logger = logger;
+    }
+
+    /**
+     * Checks the directory for menu files that have been added, changed or removed since the last poll.
+     * The first poll reports every menu, using the binary cache for files that haven't changed.
+     * Invalid files are reported to the logger and keep their previous definition.
+     * @return The changes since the last poll
+     * */
+    public synchronized @NotNull Changes poll() {
+        if (!cacheRead) {
+            cacheRead = true;
+            readCache();
+        }
+
+        Map<String, MenuDefinition> updated = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        boolean dirty = false;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attributes.isRegularFile()) continue;
+
+                String fileName = file.getFileName().toString();
+                String id = fileName.substring(0, fileName.length() - EXTENSION.length());
+                seen.add(id);
+                long modified = attributes.lastModifiedTime().toMillis();
+                long size = attributes.size();
+
+                Entry entry = entries.get(id);
+                if (entry != null && entry.modified == modified && entry.size == size) {
+                    if (!entry.reported) {
+                        entry.reported = true;
+                        updated.put(id, entry.definition);
+                    }
+                    continue;
+                }
+                Long failure = failures.get(id);
+                if (failure != null && failure == modified) continue;
+
+                try {
+                    YamlConfiguration config = new YamlConfiguration();
+                    config.loadFromString(Files.readString(file));
+                    MenuDefinition definition = MenuDefinition.parse(id, config);
+                    Entry parsed = new Entry(modified, size, definition);
+                    parsed.reported = true;
+                    entries.put(id, parsed);
+                    failures.remove(id);
+                    updated.put(id, definition);
+                    dirty = true;
+                } catch (InvalidConfigurationException | IllegalArgumentException | IOException e) {
+                    logger.warning("Could not load menu " + id + ": " + e.getMessage());
+                    failures.put(id, modified);
+                    if (entry != null) {
+                        // Keep the previous definition, but parse the file again on the next start.
+                        Entry stale = new Entry(modified, size, entry.definition, true);
+                        stale.stale = true;
+                        entries.put(id, stale);
+                        if (!entry.reported) updated.put(id, entry.definition);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not read the menu directory " + directory, e);
+            return new Changes(Collections.emptyMap(), Collections.emptySet());
+        }
+
+        failures.keySet().retainAll(seen);
+        Set<String> removed = new HashSet<>();
+        for (String id : new HashSet<>(entries.keySet())) {
+            if (seen.contains(id)) continue;
+            Entry entry = entries.remove(id);
+            if (entry.reported) removed.add(id);
+            dirty = true;
+        }
+
+        if (dirty) writeCache();
+        return new Changes(updated, removed);
+    }
+
+    /**
+     * Reads the binary cache into this loader's entries. A missing or outdated cache is ignored.
+     * @hidden Internal use only.
+     * */
+    private void readCache() {
+        if (!Files.isRegularFile(cacheFile)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long modified = in.readLong();
+                long size = in.readLong();
+                MenuDefinition definition = MenuDefinition.read(in);
+                entries.put(definition.getId(), new Entry(modified, size, definition, false));
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not read the menu cache, menus will be parsed again", e);
+            entries.clear();
+        }
+    }
+
+    /**
+     * Writes this loader's entries to the binary cache, replacing it atomically.
+     * @hidden Internal use only.
+     * */
+    private void writeCache() {
+        try {
+            Path parent = cacheFile.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Path temporary = Files.createTempFile(parent, "menus", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(entries.size());
+                for (Entry entry : entries.values()) {
+                    out.writeLong(entry.stale ? -1 : entry.modified);
+                    out.writeLong(entry.size);
+                    entry.definition.write(out);
+                }
+            }
+            Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not write the menu cache", e);
+        }
+    }
+
+    /**
+     * The menus that were added, changed or removed between two polls of a {@link MenuLoader}.
+     * */
+    public static class Changes {
+        private final @NotNull Map<String, MenuDefinition> updated;
+        private final @NotNull Set<String> removed;
+
+        private Changes(@NotNull Map<String, MenuDefinition> updated, @NotNull Set<String> removed) {
+            this.updated = Collections.unmodifiableMap(updated);
+            this.removed = Collections.unmodifiableSet(removed);
+        }
+
+        /**
+         * Returns the menus that were added or changed, keyed by ID
+         * @return The menus that were added or changed
+         * */
+        public @NotNull Map<String, MenuDefinition> getUpdated() {
+            return updated;
+        }
+
+        /**
+         * Returns the IDs of the menus that were removed
+         * @return The IDs of the menus that were removed
+         * */
+        public @NotNull Set<String> getRemoved() {
+            return removed;
+        }
+
+        /**
+         * Returns whether no menus were added, changed or removed
+         * @return Whether no menus were added, changed or removed
+         * */
+        public boolean isEmpty() {
+            return updated.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    /**
+     * A loaded menu file, identified by its modification time and size.
+     * @hidden Internal use only.
+     * */
+    private static class Entry {
+        private final long modified;
+        private final long size;
+        private final @NotNull MenuDefinition definition;
+        private boolean reported;
+        private boolean stale;
+
+        private Entry(long modified, long size, @NotNull MenuDefinition definition) {
+            this(modified, size, definition, false);
+        }
+
+        private Entry(long modified, long size, @NotNull MenuDefinition definition, boolean reported) {
+            this.modified = modified;
+            this.size = size;
+            this.definition = definition;
+            this.reported = reported;
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package io.github.bluelhf.anemone.gui;
 
 import io.github.bluelhf.anemone.Anemones;
+import io.github.bluelhf.anemone.util.Components;
+import io.github.bluelhf.anemone.util.RateLimit;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
+import org.bukkit.event.inventory.ClickType;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.inventory.InventoryType;
@@ -13,6 +16,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Abstract base class for all Anemones.
@@ -20,6 +24,7 @@ import java.util.List;
  * based on a given template and an index.
  * */
 public abstract class Anemone {
+    private @Nullable Layout layout;
 
     /**
      * Returns the template to use.
@@ -59,14 +64,39 @@ public abstract class Anemone {
     public void onUnregister() {
     }
 
+    /**
+     * Overridden by subclasses that wish to handle every click while the Anemone is open, before it is resolved to an index.
+     * Unlike the other click methods, this is also called for clicks in the viewer's own inventory
+     * and on slots that aren't part of the template.
+     * @param context The view context that the click happened in.
+     * @param event The actual click event.
+     * */
+    @SuppressWarnings({"unused", "EmptyMethod"}) // External subclasses will implement
+    protected void onRawClick(ViewContext context, InventoryClickEvent event) {
+    }
+
     /**
      * Overridden by subclasses that wish to implement click functionality.
+     * Defaults to {@link Anemone#onClick(Index, ViewContext, ClickType)}.
      * @param index The index that was clicked on.
      * @param context The view context that the click happened in.
      * @param event The actual click event.
      * */
-    @SuppressWarnings({"unused", "EmptyMethod"}) // External subclasses will implement
+    @SuppressWarnings({"unused"}) // External subclasses will implement
     protected void onClick(Index index, ViewContext context, InventoryClickEvent event) {
+        onClick(index, context, event.getClick());
+    }
+
+    /**
+     * Overridden by subclasses that wish to implement click functionality without depending on the click event.
+     * This is the only click method called for virtual Anemones, since they have no server-side inventory.
+     * @param index The index that was clicked on.
+     * @param context The view context that the click happened in.
+     * @param click The type of the click.
+     * @see Anemone#isVirtual()
+     * */
+    @SuppressWarnings({"unused", "EmptyMethod"}) // External subclasses will implement
+    protected void onClick(Index index, ViewContext context, ClickType click) {
     }
 
     /**
@@ -95,6 +125,41 @@ public abstract class Anemone {
     protected void onClose(ViewContext context) {
     }
 
+    /**
+     * Returns the title of the Anemone for the given {@link ViewContext} as a {@link Component}. May be null.
+     * The title is rendered for the viewer's locale, so subclasses may return translatable components.
+     * Defaults to {@link Anemone#getTitle()}.
+     * @param context The context that the title is being generated for
+     * @return The title of the Anemone or null if none is provided.
+     * @see Components#render(Component, Locale)
+     * */
+    @Nullable
+    public Component getTitle(@NotNull ViewContext context) {
+        return getTitle();
+    }
+
+    /**
+     * Returns whether this Anemone is shown through a {@link VirtualDisplay} instead of a server-side inventory.
+     * Virtual Anemones are display-only, and require a {@link WindowTransport} to be set.
+     * @return Whether this Anemone is shown through a {@link VirtualDisplay}
+     * @see Anemones#setTransport(WindowTransport)
+     * */
+    @SuppressWarnings("SameReturnValue") // External subclasses will change
+    public boolean isVirtual() {
+        return false;
+    }
+
+    /**
+     * Returns the click rate limit shared by all viewers of this Anemone, or null if it has none.
+     * Clicks over the limit are cancelled before they reach this Anemone.
+     * @return The click rate limit of this Anemone, or null if it has none
+     * @see Anemones#setViewerRateLimit(RateLimit)
+     * */
+    @SuppressWarnings("SameReturnValue") // External subclasses will change
+    public @Nullable RateLimit getRateLimit() {
+        return null;
+    }
+
     /**
      * Creates and fills an inventory with this Anemone's items in the given ViewContext
      * @param context The context to create the items for
@@ -102,40 +167,61 @@ public abstract class Anemone {
      * @hidden Internal use only
      * */
     protected final @NotNull Inventory getInventory(@NotNull ViewContext context) {
-        Inventory inventory = createInventory();
+        Inventory inventory = createInventory(context);
+        inventory.setContents(render(context));
+        return inventory;
+    }
+
+    /**
+     * Renders this Anemone's items in the given ViewContext
+     * @param context The context to create the items for
+     * @return The rendered items, indexed by slot
+     * @hidden Internal use only
+     * */
+    protected final ItemStack @NotNull [] render(@NotNull ViewContext context) {
+        Layout layout = getLayout();
+        ItemStack[] contents = new ItemStack[layout.size];
         int page = context.getPage();
-        int size = getSize();
-        int totalCounter = page * size;
-        HashMap<Character, Integer> charCounter = new HashMap<>();
-        for (String s : getTemplate()) {
-            for (char c : s.toCharArray()) {
-                charCounter.putIfAbsent(c, page * getCount(c));
-                int charIndex = charCounter.get(c);
-                Index index = new Index(c, page, charIndex, totalCounter);
-
-                inventory.setItem(totalCounter - page * size, itemFor(index, context));
-
-                charCounter.put(c, charCounter.get(c) + 1);
-                totalCounter++;
-            }
+        int totalCounter = page * layout.size;
+        for (int slot = 0; slot < layout.chars.length; slot++) {
+            char c = layout.chars[slot];
+            int charIndex = page * layout.perPage[slot] + layout.charIndices[slot];
+            Index index = new Index(c, page, charIndex, totalCounter + slot);
+
+            contents[slot] = itemFor(index, context);
         }
 
-        return inventory;
+        return contents;
     }
 
     /**
      * Creates an empty inventory for this Anemone
+     * @param context The context to create the inventory for
      * @return The created inventory
      * @hidden Internal use only.
      * */
-    private @NotNull Inventory createInventory() {
-        return getType() != null
-                ? getTitle() != null
-                    ? Bukkit.createInventory(null, getType(), getTitle())
-                    : Bukkit.createInventory(null, getType())
-                : getTitle() != null
-                    ? Bukkit.createInventory(null, getSize(), getTitle())
-                    : Bukkit.createInventory(null, getSize());
+    @NotNull Inventory createInventory(@NotNull ViewContext context) {
+        Layout layout = getLayout();
+        InventoryType type = layout.getType();
+        Component title = renderTitle(context);
+        return type != null
+                ? title != null
+                    ? Bukkit.createInventory(null, type, title)
+                    : Bukkit.createInventory(null, type)
+                : title != null
+                    ? Bukkit.createInventory(null, layout.size, title)
+                    : Bukkit.createInventory(null, layout.size);
+    }
+
+    /**
+     * Returns the title of this Anemone for the given context, rendered for the viewer's locale
+     * @param context The context to render the title for
+     * @return The rendered title, or null if none is provided
+     * @hidden Internal use only.
+     * */
+    @Nullable Component renderTitle(@NotNull ViewContext context) {
+        Component title = getTitle(context);
+        return title != null ? Components.render(title, context.getLocale()) : null;
     }
 
     /**
@@ -146,13 +232,12 @@ public abstract class Anemone {
      * @hidden Internal use only.
      * */
     protected @Nullable Index fromSlot(int page, int slot) {
-        Character ch = charFor(slot);
-        if (ch == null) return null;
+        Layout layout = getLayout();
+        if (slot < 0 || slot >= layout.chars.length) return null;
 
-        int perPage = getCount(ch);
-        int charIndex = perPage * page;
-        charIndex += charsUpTo(slot, ch);
-        int totalIndex = getSize() * slot;
+        char ch = layout.chars[slot];
+        int charIndex = layout.perPage[slot] * page + layout.charIndices[slot];
+        int totalIndex = layout.size * slot;
         return new Index(ch, page, charIndex, totalIndex);
     }
 
@@ -162,16 +247,30 @@ public abstract class Anemone {
      * @throws IllegalStateException If the template has no valid type
      * */
     public final @Nullable InventoryType getType() {
-        int[] size = getColRow();
-        if (size[0] == 3 && size[1] == 3) {
-            return InventoryType.DISPENSER;
-        } else if (size[0] == 9 && (size[1] == 3 || size[1] == 6)) {
-            return InventoryType.CHEST;
-        } else if (size[0] == 9 && size[1] <= 6) {
-            return null;
-        } else {
-            throw new IllegalStateException("No valid type exists for given template bounds.");
+        return getLayout().getType();
+    }
+
+    /**
+     * Returns whether an inventory can be created for the given template.
+     * Valid templates are 3 by 3, or 9 columns wide with at most 6 rows.
+     * @param template The template to check
+     * @return Whether the template has a valid type
+     * @see Anemone#getType()
+     * */
+    public static boolean isValidTemplate(@NotNull List<String> template) {
+        int columns = 0;
+        for (String row : template) {
+            columns = Math.max(columns, row.length());
         }
+        return isValidBounds(columns, template.size());
+    }
+
+    /**
+     * Returns whether an inventory can be created for a template with the given bounds.
+     * @hidden Internal use only.
+     * */
+    private static boolean isValidBounds(int columns, int rows) {
+        return (columns == 3 && rows == 3) || (columns == 9 && rows <= 6);
     }
 
     /**
@@ -180,14 +279,7 @@ public abstract class Anemone {
      * @return How many times the given character appears in this Anemone's template
      * */
     public final int getCount(char c) {
-        List<String> template = getTemplate();
-        int count = 0;
-        for (String s : template) {
-            for (char b : s.toCharArray()) {
-                if (b == c) count++;
-            }
-        }
-        return count;
+        return getLayout().counts.getOrDefault(c, 0);
     }
 
     /**
@@ -197,20 +289,9 @@ public abstract class Anemone {
      * */
     @Nullable
     public final Character charFor(int slot) {
-        List<String> template = getTemplate();
-        int ctr = 0;
-        for (String s : template) {
-            if (slot - ctr > s.length()) {
-                ctr += s.length();
-                continue;
-            }
-            for (int i = 0; i < s.length(); i++) {
-                if (slot == ctr) return s.charAt(i);
-                ctr++;
-            }
-        }
-
-        return null;
+        Layout layout = getLayout();
+        if (slot < 0 || slot >= layout.chars.length) return null;
+        return layout.chars[slot];
     }
 
     /**
@@ -221,49 +302,90 @@ public abstract class Anemone {
      * @hidden Internal use only.
      * */
     protected final int charsUpTo(int rawSlot, char c) {
+        char[] chars = getLayout().chars;
         int charCtr = 0;
-        int total = 0;
-        List<String> template = getTemplate();
-        dance:
-        for (String s : template) {
-            for (char ch : s.toCharArray()) {
-                if (total == rawSlot) break dance;
-                total++;
-
-                if (c == ch) charCtr++;
-            }
+        for (int i = 0; i < Math.min(rawSlot, chars.length); i++) {
+            if (chars[i] == c) charCtr++;
         }
 
         return charCtr;
     }
 
     /**
-     * Calculates the row and column counts for this Anemone's template
-     * @return An integer array, where [0] is the column count, and [1] is the row count.
+     * Returns the size of this Anemone's template in slots
+     * @return The size of this Anemone's template in slots
+     * */
+    public final int getSize() {
+        return getLayout().size;
+    }
+
+    /**
+     * Returns the layout of this Anemone's current template, recomputing it only if the template has changed.
+     * @return The layout of this Anemone's template
      * @hidden Internal use only.
      * */
-    private int @NotNull [] getColRow() {
+    private @NotNull Layout getLayout() {
         List<String> template = getTemplate();
-        if (template.size() == 0) return new int[]{0, 0};
-
-        int maxWidth = Integer.MIN_VALUE;
-        for (String s : template) {
-            if (s.length() > maxWidth) {
-                maxWidth = s.length();
-            }
+        Layout layout = this.layout;
+        if (layout == null || !layout.template.equals(template)) {
+            this.layout = layout = new Layout(template);
         }
-
-        return new int[]{
-                maxWidth,
-                template.size()
-        };
+        return layout;
     }
 
     /**
-     * Returns the size of this Anemone's template in slots
-     * @return The size of this Anemone's template in slots
+     * Layout holds everything that can be precomputed from a template, so rendering and click handling
+     * don't need to walk the template for every slot.
+     * @hidden Internal use only.
      * */
-    public final int getSize() {
-        return getColRow()[0] * getColRow()[1];
+    private static class Layout {
+        private final @NotNull List<String> template;
+        private final char @NotNull [] chars;
+        private final int @NotNull [] charIndices;
+        private final int @NotNull [] perPage;
+        private final HashMap<Character, Integer> counts = new HashMap<>();
+        private final int size;
+        private final @Nullable InventoryType type;
+        private final boolean validType;
+
+        private Layout(@NotNull List<String> template) {
+            this.template = List.copyOf(template);
+            StringBuilder builder = new StringBuilder();
+            int maxWidth = 0;
+            for (String s : template) {
+                builder.append(s);
+                maxWidth = Math.max(maxWidth, s.length());
+            }
+            int columns = maxWidth;
+            int rows = template.size();
+
+            this.chars = builder.toString().toCharArray();
+            this.charIndices = new int[chars.length];
+            for (int slot = 0; slot < chars.length; slot++) {
+                int seen = counts.getOrDefault(chars[slot], 0);
+                charIndices[slot] = seen;
+                counts.put(chars[slot], seen + 1);
+            }
+            this.perPage = new int[chars.length];
+            for (int slot = 0; slot < chars.length; slot++) {
+                perPage[slot] = counts.get(chars[slot]);
+            }
+            this.size = columns * rows;
+
+            if (columns == 3 && rows == 3) {
+                type = InventoryType.DISPENSER;
+            } else if (columns == 9 && rows == 3) {
+                // A chest type is always 27 slots, so larger chests are created by size.
+                type = InventoryType.CHEST;
+            } else {
+                type = null;
+            }
+            this.validType = isValidBounds(columns, rows);
+        }
+
+        private @Nullable InventoryType getType() {
+            if (!validType) throw new IllegalStateException("No valid type exists for given template bounds.");
+            return type;
+        }
     }
 }
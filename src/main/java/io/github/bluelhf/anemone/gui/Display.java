@@ -0,0 +1,64 @@
+package io.github.bluelhf.anemone.gui;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A Display is the rendering backend of a {@link ViewContext}. It shows the items rendered by an {@link Anemone}
+ * to the viewer of the context.
+ * @see InventoryDisplay
+ * @see VirtualDisplay
+ * */
+public interface Display {
+
+    /**
+     * Opens this Display to the viewer with the given contents.
+     * @param contents The items to show, indexed by slot
+     * */
+    void open(ItemStack @NotNull [] contents);
+
+    /**
+     * Replaces the items shown by this Display.
+     * @param contents The items to show, indexed by slot
+     * */
+    void render(ItemStack @NotNull [] contents);
+
+    /**
+     * Re-sends the shown items to the viewer, discarding any changes the client may have predicted.
+     * */
+    void resync();
+
+    /**
+     * Releases the rendered items held by this Display on the server, keeping it open.
+     * The items are rendered again on the next {@link Display#render(ItemStack[])}.
+     * */
+    void shed();
+
+    /**
+     * Returns whether this Display can release its items while it is open, without the viewer seeing any change
+     * @return Whether this Display can release its items while it is open
+     * */
+    default boolean canShedWhileOpen() {
+        return false;
+    }
+
+    /**
+     * Returns whether this Display is currently open to the viewer
+     * @return Whether this Display is currently open to the viewer
+     * */
+    boolean isOpen();
+
+    /**
+     * Returns whether the given {@link Inventory} belongs to this Display.
+     * Used to route inventory events to the right {@link ViewContext}.
+     * @param inventory The inventory to check
+     * @return Whether the inventory belongs to this Display
+     * */
+    boolean owns(@NotNull Inventory inventory);
+
+    /**
+     * Closes this Display if it is open.
+     * */
+    void close();
+}
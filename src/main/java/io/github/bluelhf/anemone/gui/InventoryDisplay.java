@@ -0,0 +1,68 @@
+package io.github.bluelhf.anemone.gui;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * InventoryDisplay is the default {@link Display}, which shows items in a server-side Bukkit {@link Inventory}.
+ * */
+@SuppressWarnings("unused") // API
+public class InventoryDisplay implements Display {
+    private final HumanEntity viewer;
+    private final @NotNull Inventory inventory;
+
+    public InventoryDisplay(@NotNull ViewContext context) {
+        this.viewer = context.getViewer();
+        this.inventory = context.getAnemone().createInventory(context);
+    }
+
+    /**
+     * Returns the {@link Inventory} that this InventoryDisplay shows its items in
+     * @return The Inventory that this InventoryDisplay shows its items in
+     * */
+    public @NotNull Inventory getInventory() {
+        return inventory;
+    }
+
+    @Override
+    public void open(ItemStack @NotNull [] contents) {
+        render(contents);
+        viewer.openInventory(inventory);
+    }
+
+    @Override
+    public void render(ItemStack @NotNull [] contents) {
+        inventory.setContents(contents);
+    }
+
+    @Override
+    public void resync() {
+        if (viewer instanceof Player) ((Player) viewer).updateInventory();
+    }
+
+    /**
+     * Clears the inventory. Only used while the inventory isn't open, since the viewer would see it empty.
+     * */
+    @Override
+    public void shed() {
+        inventory.clear();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return viewer.getOpenInventory().getTopInventory().equals(inventory);
+    }
+
+    @Override
+    public boolean owns(@NotNull Inventory inventory) {
+        return this.inventory.equals(inventory);
+    }
+
+    @Override
+    public void close() {
+        if (isOpen()) viewer.closeInventory();
+    }
+}
@@ -2,6 +2,8 @@ package io.github.bluelhf.anemone.gui;
 
 import io.github.bluelhf.anemone.Anemones;
 import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.inventory.Inventory;
@@ -9,6 +11,8 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
 
 /**
  * ViewContext represents the context in which an Anemone subclass is being viewed.
@@ -17,16 +21,38 @@ import java.util.List;
  */
 @SuppressWarnings("unused") // API
 public class ViewContext {
-    private final @NotNull Inventory inventory;
+    private final @NotNull Display display;
     private final HumanEntity viewer;
     private final @NotNull Anemone anemone;
     private int page;
+    private int renderedPage;
+    private boolean dirty;
+    private boolean shed;
+    private long lastInteraction = System.currentTimeMillis();
 
     public ViewContext(HumanEntity viewer, @NotNull Anemone anemone) {
+        this(viewer, anemone, InventoryDisplay::new);
+    }
+
+    public ViewContext(HumanEntity viewer, @NotNull Anemone anemone, @NotNull Function<ViewContext, Display> displayFactory) {
+        this(viewer, anemone, displayFactory, 0);
+    }
+
+    /**
+     * Creates a new ViewContext that starts on the given page.
+     * The page is set before the display is created, so titles that depend on the page are rendered for it.
+     *
+     * @param viewer The viewer of the ViewContext
+     * @param anemone The Anemone being viewed
+     * @param displayFactory The factory to create the ViewContext's display with
+     * @param page The page to start on
+     */
+    public ViewContext(HumanEntity viewer, @NotNull Anemone anemone, @NotNull Function<ViewContext, Display> displayFactory, int page) {
         this.viewer = viewer;
         this.anemone = anemone;
-        this.page = 0;
-        this.inventory = anemone.getInventory(this);
+        this.page = page;
+        this.renderedPage = page;
+        this.display = displayFactory.apply(this);
     }
 
     /**
@@ -38,48 +64,139 @@ public class ViewContext {
         return viewer;
     }
 
+    /**
+     * Returns the locale of the viewer of this ViewContext, used to render titles and item names.
+     *
+     * @return The viewer's locale, or {@link Locale#US} if the viewer isn't a player
+     */
+    public @NotNull Locale getLocale() {
+        return viewer instanceof Player ? ((Player) viewer).locale() : Locale.US;
+    }
+
     /**
      * Opens this ViewContext to the viewer if it is not already open.
      */
     public void open() {
-        if (!viewer.getOpenInventory().getTopInventory().equals(inventory)) {
-            update();
-            viewer.openInventory(inventory);
+        if (!display.isOpen()) {
+            lastInteraction = System.currentTimeMillis();
+            shed = false;
+            dirty = false;
+            renderedPage = page;
+            display.open(anemone.render(this));
         }
     }
 
     /**
-     * Updates the items in this ViewContext's inventory according to this ViewContext's {@link Anemone}
+     * Closes this ViewContext for the viewer if it is open.
+     */
+    public void close() {
+        display.close();
+    }
+
+    /**
+     * Updates the items in this ViewContext's display according to this ViewContext's {@link Anemone}
      */
     public void update() {
-        Inventory newInventory = anemone.getInventory(this);
-        for (int i = 0; i < inventory.getSize(); i++) {
-            inventory.setItem(i, newInventory.getItem(i));
-        }
+        dirty = false;
+        shed = false;
+        renderedPage = page;
+        display.render(anemone.render(this));
+    }
+
+    /**
+     * Marks this ViewContext for an update on the next render of {@link Anemones}.
+     * Multiple requests before the render are coalesced into a single update.
+     *
+     * @see Anemones#setRenderDelay(int)
+     */
+    public void requestUpdate() {
+        dirty = true;
+    }
+
+    /**
+     * Updates this ViewContext if an update has been requested since the last one.
+     * Shed ViewContexts keep their request until they are rehydrated.
+     *
+     * @hidden Internal use only.
+     */
+    public void flush() {
+        if (dirty && !shed) update();
+    }
+
+    /**
+     * Releases the rendered items of this ViewContext, keeping only its page and Anemone.
+     * The items are rendered again when the viewer next interacts with this ViewContext.
+     * In practice this only applies to virtual Anemones: it does nothing while an inventory-backed display is open,
+     * since the viewer would see it emptied.
+     *
+     * @see Anemones#setIdleTimeout(java.time.Duration)
+     * @see Display#canShedWhileOpen()
+     */
+    public void shed() {
+        if (shed || (display.isOpen() && !display.canShedWhileOpen())) return;
+        shed = true;
+        display.shed();
+    }
+
+    /**
+     * Returns whether this ViewContext has released its rendered items
+     *
+     * @return Whether this ViewContext has released its rendered items
+     * @see ViewContext#shed()
+     */
+    public boolean isShed() {
+        return shed;
+    }
+
+    /**
+     * Returns when the viewer last interacted with this ViewContext, in milliseconds since the epoch
+     *
+     * @return When the viewer last interacted with this ViewContext
+     */
+    public long getLastInteraction() {
+        return lastInteraction;
+    }
+
+    /**
+     * Re-sends the shown items to the viewer, discarding any changes the client may have predicted.
+     * A shed ViewContext is rendered again instead, since its display no longer holds the items.
+     *
+     * @hidden Internal use only.
+     */
+    public void resync() {
+        if (shed) update();
+        else display.resync();
+    }
+
+    /**
+     * Records an interaction with this ViewContext, rendering its items again if they were released.
+     *
+     * @hidden Internal use only.
+     */
+    private void touch() {
+        lastInteraction = System.currentTimeMillis();
+        if (shed) update();
     }
 
     /**
-     * Increments this ViewContext's page, updating the display for the viewer
+     * Increments this ViewContext's page, requesting an update of the display for the viewer
      */
     public void next() {
-        this.page++;
-        update();
+        changePage(page + 1);
     }
 
     /**
-     * Decrements this ViewContext's page, updating the display for the viewer
+     * Decrements this ViewContext's page, requesting an update of the display for the viewer
      */
     public void previous() {
-        this.page = this.page > 0 ? page - 1 : 0;
-        update();
+        changePage(page > 0 ? page - 1 : 0);
     }
 
     /**
-     * Resets this ViewContext's page, updating the display for the viewer
+     * Resets this ViewContext's page, requesting an update of the display for the viewer
      */
     public void reset() {
-        this.page = 0;
-        update();
+        changePage(0);
     }
 
     /**
@@ -92,13 +209,25 @@ public class ViewContext {
     }
 
     /**
-     * Sets this ViewContext's page, updating the display for the viewer
+     * Sets this ViewContext's page, requesting an update of the display for the viewer
      *
      * @param page The page to set the ViewContext's page to
      */
     public void setPage(int page) {
+        changePage(page);
+    }
+
+    /**
+     * Changes this ViewContext's page, requesting an update unless the page stays the same.
+     * Clicks keep resolving against the rendered page until the update is rendered, so they match what the viewer sees.
+     *
+     * @param page The new page
+     * @hidden Internal use only.
+     */
+    private void changePage(int page) {
+        if (this.page == page) return;
         this.page = page;
-        update();
+        requestUpdate();
     }
 
     /**
@@ -110,18 +239,73 @@ public class ViewContext {
         return anemone;
     }
 
+    /**
+     * Returns the {@link Display} that this ViewContext is shown through
+     *
+     * @return The {@link Display} that this ViewContext is shown through
+     */
+    public @NotNull Display getDisplay() {
+        return display;
+    }
+
+    /**
+     * Returns whether the given {@link Inventory} belongs to this ViewContext
+     *
+     * @param inventory The inventory to check
+     * @return Whether the inventory belongs to this ViewContext
+     * @hidden Internal use only.
+     */
+    public boolean owns(@NotNull Inventory inventory) {
+        return display.owns(inventory);
+    }
+
+    /**
+     * Returns whether the virtual window with the given ID belongs to this ViewContext
+     *
+     * @param windowId The ID of the window
+     * @return Whether the window belongs to this ViewContext
+     * @hidden Internal use only.
+     */
+    public boolean ownsWindow(int windowId) {
+        return display instanceof VirtualDisplay && ((VirtualDisplay) display).getWindowId() == windowId;
+    }
+
     /**
      * Calls the click method of the host {@link Anemone}.
      * @param event The event to call the method with
      * @hidden Internal use only.
      */
     public void onClick(@NotNull InventoryClickEvent event) {
-        Index index = anemone.fromSlot(page, event.getRawSlot());
+        touch();
+        anemone.onRawClick(this, event);
+        Index index = anemone.fromSlot(renderedPage, event.getRawSlot());
         if (index == null) return;
 
         anemone.onClick(index, this, event);
     }
 
+    /**
+     * Calls the click method of the host {@link Anemone} for a click in a virtual window,
+     * then re-sends the window so the client doesn't keep the clicked item.
+     * Updates requested by the click are rendered into that one send instead of being sent separately.
+     * @param rawSlot The slot that was clicked
+     * @param click The type of the click
+     * @hidden Internal use only.
+     */
+    public void onClick(int rawSlot, @NotNull ClickType click) {
+        lastInteraction = System.currentTimeMillis();
+        Index index = anemone.fromSlot(renderedPage, rawSlot);
+        if (index != null) anemone.onClick(index, this, click);
+
+        if ((dirty || shed) && display.canShedWhileOpen()) {
+            // Dropping the sent items makes the render send every slot, which also resyncs the window.
+            display.shed();
+            update();
+        } else {
+            resync();
+        }
+    }
+
     /**
      * Calls the drag method of the host {@link Anemone}.
      *
@@ -129,9 +313,10 @@ public class ViewContext {
      * @hidden Internal use only.
      */
     public void onDrag(@NotNull InventoryDragEvent event) {
+        touch();
         List<Index> indices = new ArrayList<>();
         for (int rawSlot : event.getRawSlots()) {
-            Index index = anemone.fromSlot(page, rawSlot);
+            Index index = anemone.fromSlot(renderedPage, rawSlot);
             if (index != null) indices.add(index);
         }
 
@@ -144,6 +329,7 @@ public class ViewContext {
      * @hidden Internal use only.
      */
     public void onClose() {
+        if (display instanceof VirtualDisplay) ((VirtualDisplay) display).closed();
         anemone.onClose(this);
     }
 
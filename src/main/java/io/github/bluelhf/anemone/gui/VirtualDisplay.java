@@ -0,0 +1,110 @@
+package io.github.bluelhf.anemone.gui;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * VirtualDisplay is a {@link Display} that sends its items directly to the client through a {@link WindowTransport}.
+ * The shown slots are display-only: no server-side {@link Inventory} exists, and only the last sent items are kept,
+ * so that re-renders only send the slots that changed.
+ * @see Anemone#isVirtual()
+ * */
+@SuppressWarnings("unused") // API
+public class VirtualDisplay implements Display {
+    private final @NotNull ViewContext context;
+    private final @NotNull WindowTransport transport;
+    private int windowId = -1;
+    private ItemStack @Nullable [] slots;
+
+    public VirtualDisplay(@NotNull ViewContext context, @NotNull WindowTransport transport) {
+        this.context = context;
+        this.transport = transport;
+    }
+
+    /**
+     * Returns the ID of the window that this VirtualDisplay has open, or -1 if it isn't open
+     * @return The ID of the window that this VirtualDisplay has open, or -1 if it isn't open
+     * */
+    public int getWindowId() {
+        return windowId;
+    }
+
+    @Override
+    public void open(ItemStack @NotNull [] contents) {
+        Anemone anemone = context.getAnemone();
+        windowId = transport.open(getViewer(), anemone.getType(), anemone.getSize(), anemone.renderTitle(context));
+        slots = contents;
+        transport.setContents(getViewer(), windowId, contents);
+        // Virtual windows fire no InventoryOpenEvent
+        context.onOpen();
+    }
+
+    @Override
+    public void render(ItemStack @NotNull [] contents) {
+        ItemStack[] previous = slots;
+        slots = contents;
+        if (!isOpen()) return;
+        if (previous == null || previous.length != contents.length) {
+            transport.setContents(getViewer(), windowId, contents);
+            return;
+        }
+
+        for (int slot = 0; slot < contents.length; slot++) {
+            if (!Objects.equals(previous[slot], contents[slot])) {
+                transport.setSlot(getViewer(), windowId, slot, contents[slot]);
+            }
+        }
+    }
+
+    @Override
+    public void resync() {
+        if (isOpen() && slots != null) transport.setContents(getViewer(), windowId, slots);
+    }
+
+    /**
+     * Drops the last sent items. The client keeps showing them, and the next render sends every slot again.
+     * */
+    @Override
+    public void shed() {
+        slots = null;
+    }
+
+    @Override
+    public boolean canShedWhileOpen() {
+        return true;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return windowId != -1;
+    }
+
+    @Override
+    public boolean owns(@NotNull Inventory inventory) {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        if (!isOpen()) return;
+        transport.close(getViewer(), windowId);
+        windowId = -1;
+    }
+
+    /**
+     * Marks this VirtualDisplay as closed without notifying the client, because the client closed the window itself.
+     * @hidden Internal use only.
+     * */
+    void closed() {
+        windowId = -1;
+    }
+
+    private HumanEntity getViewer() {
+        return context.getViewer();
+    }
+}
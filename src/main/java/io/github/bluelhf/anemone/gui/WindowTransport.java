@@ -0,0 +1,56 @@
+package io.github.bluelhf.anemone.gui;
+
+import io.github.bluelhf.anemone.Anemones;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A WindowTransport sends window contents directly to clients, without a server-side {@link org.bukkit.inventory.Inventory}.
+ * It is used by {@link VirtualDisplay}s, and is usually implemented on top of a packet library.
+ * All methods are called on the main thread.
+ * <p>
+ * Implementations must report clicks and closes in windows they opened to
+ * {@link Anemones#onVirtualClick(HumanEntity, int, int, ClickType)} and {@link Anemones#onVirtualClose(HumanEntity, int)}.
+ * @see Anemones#setTransport(WindowTransport)
+ * */
+public interface WindowTransport {
+
+    /**
+     * Opens a new window to the given viewer.
+     * @param viewer The viewer to open the window to
+     * @param type The type of the window, or null for a chest with the given size
+     * @param size The size of the window in slots
+     * @param title The title of the window, or null for the default title
+     * @return The ID of the opened window
+     * */
+    int open(@NotNull HumanEntity viewer, @Nullable InventoryType type, int size, @Nullable Component title);
+
+    /**
+     * Sends the full contents of a window to the given viewer. Must also reset the viewer's cursor item.
+     * @param viewer The viewer of the window
+     * @param windowId The ID of the window
+     * @param contents The items to show, indexed by slot
+     * */
+    void setContents(@NotNull HumanEntity viewer, int windowId, ItemStack @NotNull [] contents);
+
+    /**
+     * Sends a single slot of a window to the given viewer.
+     * @param viewer The viewer of the window
+     * @param windowId The ID of the window
+     * @param slot The slot to send
+     * @param item The item in the slot, or null if it is empty
+     * */
+    void setSlot(@NotNull HumanEntity viewer, int windowId, int slot, @Nullable ItemStack item);
+
+    /**
+     * Closes a window for the given viewer.
+     * @param viewer The viewer of the window
+     * @param windowId The ID of the window
+     * */
+    void close(@NotNull HumanEntity viewer, int windowId);
+}
@@ -0,0 +1,129 @@
+package io.github.bluelhf.anemone.util;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.translation.GlobalTranslator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Components is a utility class that caches {@link Component}s rendered for a specific {@link Locale}.
+ * Rendered components are keyed by their locale and source, so titles and item names that are shown
+ * over and over again are only built and translated once. Components that contain nothing translatable are returned
+ * as they are without being cached, since they render the same for every locale. All methods must be called on the main thread.
+ * */
+@SuppressWarnings("unused") // API
+public class Components {
+    private static final int MAX_SIZE = 4096;
+    private static final LinkedHashMap<Key, Component> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Component> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    private Components() {
+    }
+
+    /**
+     * Renders the given {@link Component} for the given {@link Locale} using the {@link GlobalTranslator}.
+     * Components without a {@link TranslatableComponent} are returned as they are.
+     * @param component The component to render
+     * @param locale The locale to render the component for
+     * @return The rendered component
+     * @see Components#translatable(Locale, String, Object...)
+     * */
+    public static @NotNull Component render(@NotNull Component component, @NotNull Locale locale) {
+        if (!isTranslatable(component)) return component;
+        return cache.computeIfAbsent(
+                new Key(locale, component, null),
+                key -> GlobalTranslator.render(component, locale)
+        );
+    }
+
+    /**
+     * Builds and renders a translatable {@link Component} for the given {@link Locale}.
+     * Arguments that aren't {@link ComponentLike} are converted to text components.
+     * @param locale The locale to render the component for
+     * @param key The translation key
+     * @param args The arguments of the translation
+     * @return The rendered component
+     * @see Components#render(Component, Locale)
+     * */
+    public static @NotNull Component translatable(@NotNull Locale locale, @NotNull String key, @NotNull Object... args) {
+        return cache.computeIfAbsent(new Key(locale, key, args), k -> {
+            Component[] components = new Component[args.length];
+            for (int i = 0; i < args.length; i++) {
+                components[i] = args[i] instanceof ComponentLike
+                        ? ((ComponentLike) args[i]).asComponent()
+                        : Component.text(String.valueOf(args[i]));
+            }
+            return GlobalTranslator.render(Component.translatable(key, components), locale);
+        });
+    }
+
+    /**
+     * Clears all rendered components. Should be called when translations are reloaded.
+     * */
+    public static void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Returns whether the given {@link Component} contains a {@link TranslatableComponent},
+     * either itself, in its children or in its hover text.
+     * @param component The component to check
+     * @return Whether the component contains a TranslatableComponent
+     * @hidden Internal use only.
+     * */
+    private static boolean isTranslatable(@NotNull Component component) {
+        if (component instanceof TranslatableComponent) return true;
+        HoverEvent<?> hover = component.hoverEvent();
+        if (hover != null && hover.value() instanceof Component && isTranslatable((Component) hover.value())) return true;
+        for (Component child : component.children()) {
+            if (isTranslatable(child)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The cache key of a rendered component.
+     * @hidden Internal use only.
+     * */
+    private static class Key {
+        private final @NotNull Locale locale;
+        private final @NotNull Object source;
+        private final Object @Nullable [] args;
+        private final int hash;
+
+        private Key(@NotNull Locale locale, @NotNull Object source, Object @Nullable [] args) {
+            this.locale = locale;
+            this.source = source;
+            this.args = args;
+            this.hash = 31 * (31 * locale.hashCode() + source.hashCode()) + Arrays.hashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hash == key.hash
+                    && locale.equals(key.locale)
+                    && source.equals(key.source)
+                    && Arrays.equals(args, key.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
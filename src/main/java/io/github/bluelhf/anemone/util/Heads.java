@@ -0,0 +1,333 @@
+package io.github.bluelhf.anemone.util;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.destroystokyo.paper.profile.ProfileProperty;
+import io.github.bluelhf.anemone.Anemones;
+import io.github.bluelhf.anemone.gui.ViewContext;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Heads is a cache of player head {@link ItemStack}s.
+ * Profiles are resolved asynchronously, and a placeholder head is returned until the texture is ready,
+ * at which point an update is requested for any {@link ViewContext}s that asked for the head.
+ * Resolved textures are evicted after a time-to-live or when the cache is full, and can be persisted to a file between restarts.
+ * Failed lookups are retried after a much shorter time-to-live, and only a few lookups run at once,
+ * so a menu with many heads doesn't flood the session servers.
+ * All methods must be called on the main thread.
+ * @see Anemones#getHeads()
+ * */
+@SuppressWarnings("unused") // API
+public class Heads {
+    private static final String TEXTURES = "textures";
+    private static final int MAX_LOOKUPS = 4;
+
+    private final @NotNull Executor async;
+    private final @NotNull Executor sync;
+    private final @NotNull Path cacheFile;
+    private long ttl;
+    private long failureTtl = Duration.ofMinutes(1).toMillis();
+    private int maxSize;
+    private final LinkedHashMap<UUID, Texture> textures;
+    private final HashMap<UUID, Set<ViewContext>> pending = new HashMap<>();
+    private final ArrayDeque<UUID> lookups = new ArrayDeque<>();
+    private int activeLookups;
+    private @NotNull ItemStack placeholder = new ItemStack(Material.PLAYER_HEAD);
+    private volatile boolean closed;
+
+    /**
+     * Creates a new Heads cache.
+     * @param async The executor to resolve profiles on. At most a few lookups are submitted to it at once.
+     * @param sync The executor to run completions on. Must run tasks on the main thread.
+     * @param cacheFile The file to persist resolved textures to
+     * @param maxSize The maximum amount of textures to keep in memory
+     * @param ttl How long a resolved texture stays valid for
+     * */
+    public Heads(@NotNull Executor async, @NotNull Executor sync, @NotNull Path cacheFile, int maxSize, @NotNull Duration ttl) {
+        this.async = async;
+        this.sync = sync;
+        this.cacheFile = cacheFile;
+        this.ttl = ttl.toMillis();
+        this.maxSize = maxSize;
+        this.textures = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Texture> eldest) {
+                return size() > Heads.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Sets the maximum amount of textures to keep in memory, evicting the least recently used textures if needed.
+     * @param maxSize The maximum amount of textures to keep in memory
+     * @throws IllegalArgumentException If the size isn't positive
+     * */
+    public void setMaxSize(int maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("Maximum size must be positive.");
+        this.maxSize = maxSize;
+        Iterator<UUID> iterator = textures.keySet().iterator();
+        while (textures.size() > maxSize) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Sets how long a resolved texture stays valid for
+     * @param ttl How long a resolved texture stays valid for
+     * */
+    public void setTtl(@NotNull Duration ttl) {
+        this.ttl = ttl.toMillis();
+    }
+
+    /**
+     * Sets how long to wait before retrying a lookup that failed or found no texture. Defaults to a minute.
+     * @param failureTtl How long to wait before retrying a failed lookup
+     * */
+    public void setFailureTtl(@NotNull Duration failureTtl) {
+        this.failureTtl = failureTtl.toMillis();
+    }
+
+    /**
+     * Returns a head for the player with the given {@link UUID}.
+     * If the texture isn't resolved yet, a placeholder is returned and resolution is started in the background.
+     * @param uuid The UUID of the player
+     * @return The player's head, or a placeholder if the texture isn't ready yet
+     * @see Heads#of(UUID, ViewContext)
+     * */
+    public @NotNull ItemStack of(@NotNull UUID uuid) {
+        return of(uuid, null);
+    }
+
+    /**
+     * Returns a head for the player with the given {@link UUID}.
+     * If the texture isn't resolved yet, a placeholder is returned, resolution is started in the background,
+     * and an update of the given {@link ViewContext} is requested once the texture is ready.
+     * @param uuid The UUID of the player
+     * @param context The context to update once the texture is ready, or null
+     * @return The player's head, or a placeholder if the texture isn't ready yet
+     * */
+    public @NotNull ItemStack of(@NotNull UUID uuid, @Nullable ViewContext context) {
+        Texture texture = textures.get(uuid);
+        if (texture == null || isExpired(texture)) {
+            request(uuid, context);
+        }
+
+        if (texture == null || texture.value == null) return placeholder.clone();
+        return texture.getItem(uuid).clone();
+    }
+
+    /**
+     * Sets the item to show while a head's texture is being resolved.
+     * @param placeholder The placeholder item
+     * */
+    public void setPlaceholder(@NotNull ItemStack placeholder) {
+        this.placeholder = placeholder.clone();
+    }
+
+    /**
+     * Loads persisted textures from this cache's file. Does nothing if the file doesn't exist.
+     * Expired and malformed entries are skipped.
+     * @throws IOException If the file couldn't be read
+     * */
+    public void load() throws IOException {
+        if (!Files.isRegularFile(cacheFile)) return;
+        try (BufferedReader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", -1);
+                if (parts.length != 5) continue;
+                try {
+                    Texture texture = new Texture(
+                            parts[2].isEmpty() ? null : parts[2],
+                            parts[3],
+                            parts[4].isEmpty() ? null : parts[4],
+                            Long.parseLong(parts[1])
+                    );
+                    if (!isExpired(texture)) textures.put(UUID.fromString(parts[0]), texture);
+                } catch (IllegalArgumentException ignored) {
+                    // Malformed entry, it will be resolved again when needed.
+                }
+            }
+        }
+    }
+
+    /**
+     * Persists the resolved textures of this cache to its file.
+     * Does nothing if no textures are resolved and the file doesn't exist yet.
+     * @throws IOException If the file couldn't be written
+     * */
+    public void save() throws IOException {
+        boolean resolved = false;
+        for (Texture texture : textures.values()) {
+            if (texture.value != null) {
+                resolved = true;
+                break;
+            }
+        }
+        if (!resolved && !Files.exists(cacheFile)) return;
+
+        Path parent = cacheFile.getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (BufferedWriter writer = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8)) {
+            for (Map.Entry<UUID, Texture> entry : textures.entrySet()) {
+                Texture texture = entry.getValue();
+                if (texture.value == null || isExpired(texture)) continue;
+                writer.write(entry.getKey() + "\t" + texture.resolvedAt + "\t"
+                        + (texture.name == null ? "" : texture.name) + "\t"
+                        + texture.value + "\t"
+                        + (texture.signature == null ? "" : texture.signature));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Stops this cache from accepting resolved profiles. Resolutions that are still in progress are discarded.
+     * @hidden Internal use only.
+     * */
+    public void close() {
+        closed = true;
+        pending.clear();
+        lookups.clear();
+    }
+
+    /**
+     * Returns whether the given texture should be resolved again. Failed lookups expire sooner than resolved textures.
+     * @param texture The texture to check
+     * @return Whether the texture has expired
+     * @hidden Internal use only.
+     * */
+    private boolean isExpired(@NotNull Texture texture) {
+        return System.currentTimeMillis() - texture.resolvedAt > (texture.value == null ? failureTtl : ttl);
+    }
+
+    /**
+     * Queues the texture for the given UUID to be resolved, unless it is already being resolved.
+     * @param uuid The UUID to resolve
+     * @param context The context to update once the texture is ready, or null
+     * @hidden Internal use only.
+     * */
+    private void request(@NotNull UUID uuid, @Nullable ViewContext context) {
+        Set<ViewContext> waiting = pending.get(uuid);
+        if (waiting != null) {
+            if (context != null) waiting.add(context);
+            return;
+        }
+
+        waiting = new LinkedHashSet<>();
+        if (context != null) waiting.add(context);
+        pending.put(uuid, waiting);
+        lookups.add(uuid);
+        startLookups();
+    }
+
+    /**
+     * Submits queued lookups to the async executor, keeping at most {@link Heads#MAX_LOOKUPS} running at once.
+     * @hidden Internal use only.
+     * */
+    private void startLookups() {
+        while (activeLookups < MAX_LOOKUPS && !lookups.isEmpty()) {
+            UUID uuid = lookups.poll();
+            activeLookups++;
+            async.execute(() -> {
+                Texture texture = resolve(uuid);
+                if (!closed) sync.execute(() -> complete(uuid, texture));
+            });
+        }
+    }
+
+    /**
+     * Resolves the texture for the given UUID. Blocks, so must not be called on the main thread.
+     * @param uuid The UUID to resolve
+     * @return The resolved texture, which has a null value if the profile has no texture
+     * @hidden Internal use only.
+     * */
+    private @NotNull Texture resolve(@NotNull UUID uuid) {
+        long now = System.currentTimeMillis();
+        try {
+            PlayerProfile profile = Bukkit.createProfile(uuid);
+            if (profile.complete(true)) {
+                for (ProfileProperty property : profile.getProperties()) {
+                    if (TEXTURES.equals(property.getName())) {
+                        return new Texture(profile.getName(), property.getValue(), property.getSignature(), now);
+                    }
+                }
+            }
+        } catch (RuntimeException ignored) {
+            // Lookup failures are cached like missing textures, so they are retried once the failure TTL passes.
+        }
+        return new Texture(null, null, null, now);
+    }
+
+    /**
+     * Stores a resolved texture and requests an update of the contexts that were waiting for it.
+     * @param uuid The UUID that was resolved
+     * @param texture The resolved texture
+     * @hidden Internal use only.
+     * */
+    private void complete(@NotNull UUID uuid, @NotNull Texture texture) {
+        if (closed) return;
+        activeLookups--;
+        startLookups();
+        textures.put(uuid, texture);
+        Set<ViewContext> waiting = pending.remove(uuid);
+        if (waiting == null || texture.value == null) return;
+
+        // Requests are coalesced, so a menu with many heads is only re-rendered once per render.
+        for (ViewContext context : waiting) {
+            context.requestUpdate();
+        }
+    }
+
+    /**
+     * A resolved texture, along with the head item built from it.
+     * @hidden Internal use only.
+     * */
+    private static class Texture {
+        private final @Nullable String name;
+        private final @Nullable String value;
+        private final @Nullable String signature;
+        private final long resolvedAt;
+        private @Nullable ItemStack item;
+
+        private Texture(@Nullable String name, @Nullable String value, @Nullable String signature, long resolvedAt) {
+            this.name = name;
+            this.value = value;
+            this.signature = signature;
+            this.resolvedAt = resolvedAt;
+        }
+
+        private @NotNull ItemStack getItem(@NotNull UUID uuid) {
+            if (item == null) {
+                PlayerProfile profile = Bukkit.createProfile(uuid, name);
+                profile.setProperty(new ProfileProperty(TEXTURES, value, signature));
+                item = Items.of(Material.PLAYER_HEAD)
+                        .modifyMeta(meta -> ((SkullMeta) meta).setPlayerProfile(profile))
+                        .build();
+            }
+            return item;
+        }
+    }
+}
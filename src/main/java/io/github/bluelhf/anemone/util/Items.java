@@ -1,5 +1,6 @@
 package io.github.bluelhf.anemone.util;
 
+import net.kyori.adventure.text.Component;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -7,6 +8,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Locale;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -100,6 +102,19 @@ public class Items {
         return this;
     }
 
+    /**
+     * Sets the display name of the generated {@link ItemStack} to the given {@link Component}, rendered for the given {@link Locale}
+     * @param name The display name
+     * @param locale The locale to render the display name for
+     * @return This Items
+     * @see Components#render(Component, Locale)
+     * @see Items#modifyMeta(Consumer)
+     * */
+    public @NotNull Items name(@NotNull Component name, @NotNull Locale locale) {
+        Component rendered = Components.render(name, locale);
+        return modifyMeta(meta -> meta.displayName(rendered));
+    }
+
     /**
      * Builds an {@link ItemStack} out of this Items by getting the stack from the stack supplier and applying the given modifiers.
      * @return The built ItemStack
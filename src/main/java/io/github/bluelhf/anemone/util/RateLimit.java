@@ -0,0 +1,74 @@
+package io.github.bluelhf.anemone.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * RateLimit describes how many actions may be taken per second, with an allowance for short bursts.
+ * Limits are enforced by {@link Bucket}s, token buckets created from the RateLimit.
+ * */
+@SuppressWarnings("unused") // API
+public class RateLimit {
+    private final double permitsPerSecond;
+    private final int burst;
+
+    /**
+     * Creates a new RateLimit.
+     * @param permitsPerSecond How many actions are allowed per second on average
+     * @param burst How many actions may be taken at once
+     * @throws IllegalArgumentException If either argument isn't positive
+     * */
+    public RateLimit(double permitsPerSecond, int burst) {
+        if (!(permitsPerSecond > 0) || burst <= 0)
+            throw new IllegalArgumentException("Rate limits must allow a positive amount of actions.");
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+    }
+
+    /**
+     * Returns how many actions are allowed per second on average
+     * @return How many actions are allowed per second on average
+     * */
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * Returns how many actions may be taken at once
+     * @return How many actions may be taken at once
+     * */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Creates a new, full {@link Bucket} that enforces this RateLimit
+     * @return The created Bucket
+     * */
+    public @NotNull Bucket newBucket() {
+        return new Bucket();
+    }
+
+    /**
+     * A Bucket holds the actions that are currently allowed by a {@link RateLimit}, refilling over time.
+     * */
+    public class Bucket {
+        private double tokens = burst;
+        private long lastRefill = System.nanoTime();
+
+        private Bucket() {
+        }
+
+        /**
+         * Takes an action from this Bucket if one is allowed
+         * @return Whether the action is allowed
+         * */
+        public boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerSecond / 1_000_000_000D);
+            lastRefill = now;
+            if (tokens < 1) return false;
+            tokens--;
+            return true;
+        }
+    }
+}
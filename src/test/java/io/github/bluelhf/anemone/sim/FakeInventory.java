@@ -0,0 +1,115 @@
+package io.github.bluelhf.anemone.sim;
+
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * FakeInventory is an {@link Inventory} of a {@link Simulation}, backed by an array.
+ * Items are copied on insertion like a real server does, and every slot whose item changes is counted as a slot update.
+ * @hidden Internal use only.
+ * */
+class FakeInventory implements InvocationHandler {
+    private final @NotNull InventoryType type;
+    private final ItemStack @NotNull [] contents;
+    private final @NotNull SlotCounter counter;
+    private final @NotNull Inventory proxy;
+
+    FakeInventory(@NotNull FakeServer server, @NotNull InventoryType type, int size) {
+        this.type = type;
+        this.contents = new ItemStack[size];
+        this.counter = new SlotCounter(server);
+        this.proxy = (Inventory) Proxy.newProxyInstance(
+                FakeInventory.class.getClassLoader(),
+                new Class<?>[]{type == InventoryType.PLAYER ? PlayerInventory.class : Inventory.class},
+                this
+        );
+    }
+
+    /**
+     * Returns the FakeInventory behind the given inventory, if it is one
+     * @param inventory The inventory
+     * @return The FakeInventory, or null if the inventory isn't fake
+     * */
+    static @Nullable FakeInventory of(@NotNull Inventory inventory) {
+        if (!Proxy.isProxyClass(inventory.getClass())) return null;
+        InvocationHandler handler = Proxy.getInvocationHandler(inventory);
+        return handler instanceof FakeInventory ? (FakeInventory) handler : null;
+    }
+
+    @NotNull Inventory getProxy() {
+        return proxy;
+    }
+
+    @NotNull SlotCounter getCounter() {
+        return counter;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        int arity = args == null ? 0 : args.length;
+        switch (method.getName()) {
+            case "getSize":
+                return contents.length;
+            case "getType":
+                return type;
+            case "getMaxStackSize":
+                return 64;
+            case "getViewers":
+                return new ArrayList<>();
+            case "getItem":
+                return contents[(Integer) args[0]];
+            case "setItem":
+                set((Integer) args[0], (ItemStack) args[1]);
+                return null;
+            case "getContents":
+            case "getStorageContents":
+                return contents.clone();
+            case "setContents":
+            case "setStorageContents":
+                ItemStack[] items = (ItemStack[]) args[0];
+                if (items.length > contents.length)
+                    throw new IllegalArgumentException("Invalid inventory size; expected " + contents.length + " or less");
+                for (int slot = 0; slot < contents.length; slot++) {
+                    set(slot, slot < items.length ? items[slot] : null);
+                }
+                return null;
+            case "clear":
+                if (arity == 1) {
+                    set((Integer) args[0], null);
+                } else {
+                    for (int slot = 0; slot < contents.length; slot++) {
+                        set(slot, null);
+                    }
+                }
+                return null;
+            case "isEmpty":
+                return Arrays.stream(contents).allMatch(Objects::isNull);
+            case "firstEmpty":
+                for (int slot = 0; slot < contents.length; slot++) {
+                    if (contents[slot] == null) return slot;
+                }
+                return -1;
+            case "iterator":
+                return Arrays.asList(contents.clone()).listIterator();
+            default:
+                return FakeServer.fallback(proxy, method, args);
+        }
+    }
+
+    private void set(int slot, @Nullable ItemStack item) {
+        ItemStack stored = item == null || item.getType().isAir() ? null : item.clone();
+        if (!Objects.equals(contents[slot], stored)) counter.count(1);
+        contents[slot] = stored;
+    }
+}
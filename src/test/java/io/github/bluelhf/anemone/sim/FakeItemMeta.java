@@ -0,0 +1,125 @@
+package io.github.bluelhf.anemone.sim;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * FakeItemMeta is the {@link ItemMeta} of a {@link Simulation}. It stores every property set on it in a map,
+ * treating {@code setX(value)} and {@code x(value)} as setters and {@code getX()}, {@code x()} and {@code hasX()} as getters.
+ * Like the metas of a real server, every FakeItemMeta is {@link Damageable}.
+ * @hidden Internal use only.
+ * */
+class FakeItemMeta implements InvocationHandler {
+    private final @NotNull Class<? extends ItemMeta> type;
+    private final HashMap<String, Object> properties;
+
+    private FakeItemMeta(@NotNull Class<? extends ItemMeta> type, @NotNull HashMap<String, Object> properties) {
+        this.type = type;
+        this.properties = properties;
+    }
+
+    /**
+     * Creates an empty meta for the given material.
+     * @param material The material to create the meta for
+     * @return The created meta, or null for air
+     * */
+    static @Nullable ItemMeta create(@NotNull Material material) {
+        if (material.isAir()) return null;
+        return new FakeItemMeta(material == Material.PLAYER_HEAD ? SimulatedSkullMeta.class : Damageable.class, new HashMap<>()).getProxy();
+    }
+
+    /**
+     * Compares two metas like {@code ItemFactory#equals}, where null is equal to an empty meta.
+     * @param a The first meta
+     * @param b The second meta
+     * @return Whether the metas are equal
+     * */
+    static boolean equals(@Nullable ItemMeta a, @Nullable ItemMeta b) {
+        return propertiesOf(a).equals(propertiesOf(b));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        int arity = args == null ? 0 : args.length;
+        switch (name) {
+            case "clone":
+                if (arity == 0) return new FakeItemMeta(type, new HashMap<>(properties)).getProxy();
+                break;
+            case "equals":
+                if (arity == 1) return args[0] instanceof ItemMeta && properties.equals(propertiesOf((ItemMeta) args[0]));
+                break;
+            case "hashCode":
+                if (arity == 0) return properties.hashCode();
+                break;
+            case "toString":
+                if (arity == 0) return "FakeItemMeta" + properties;
+                break;
+        }
+
+        if (arity == 1 && (method.getReturnType() == void.class || (method.getReturnType() == boolean.class && name.startsWith("set")))) {
+            if (args[0] == null) properties.remove(key(name));
+            else properties.put(key(name), args[0]);
+            return method.getReturnType() == boolean.class ? true : null;
+        }
+        if (arity == 0) {
+            if (name.startsWith("has") && method.getReturnType() == boolean.class) return properties.containsKey(key(name));
+            Object value = properties.get(key(name));
+            if (value != null && wrap(method.getReturnType()).isInstance(value)) return value;
+        }
+        return FakeServer.defaultValue(method.getReturnType());
+    }
+
+    private @NotNull ItemMeta getProxy() {
+        return (ItemMeta) Proxy.newProxyInstance(FakeItemMeta.class.getClassLoader(), new Class<?>[]{type}, this);
+    }
+
+    private static @NotNull HashMap<String, Object> propertiesOf(@Nullable ItemMeta meta) {
+        if (meta == null || !Proxy.isProxyClass(meta.getClass())) return new HashMap<>();
+        InvocationHandler handler = Proxy.getInvocationHandler(meta);
+        return handler instanceof FakeItemMeta ? ((FakeItemMeta) handler).properties : new HashMap<>();
+    }
+
+    /**
+     * Returns the property key of an accessor, so that {@code setDisplayName}, {@code displayName} and {@code hasDisplayName} share one.
+     * */
+    private static @NotNull String key(@NotNull String name) {
+        for (String prefix : new String[]{"set", "get", "has", "is"}) {
+            if (name.length() > prefix.length() && name.startsWith(prefix) && Character.isUpperCase(name.charAt(prefix.length()))) {
+                name = name.substring(prefix.length());
+                break;
+            }
+        }
+        return name.substring(0, 1).toLowerCase(Locale.ROOT) + name.substring(1);
+    }
+
+    private static @NotNull Class<?> wrap(@NotNull Class<?> type) {
+        if (!type.isPrimitive()) return type;
+        if (type == boolean.class) return Boolean.class;
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == double.class) return Double.class;
+        if (type == float.class) return Float.class;
+        if (type == short.class) return Short.class;
+        if (type == byte.class) return Byte.class;
+        return Character.class;
+    }
+
+    /**
+     * The meta of player heads, which are both {@link SkullMeta} and {@link Damageable}.
+     * */
+    interface SimulatedSkullMeta extends SkullMeta, Damageable {
+        @Override
+        @NotNull SimulatedSkullMeta clone();
+    }
+}
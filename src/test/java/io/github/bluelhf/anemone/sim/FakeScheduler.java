@@ -0,0 +1,193 @@
+package io.github.bluelhf.anemone.sim;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * FakeScheduler is the {@link BukkitScheduler} of a {@link Simulation}. Synchronous tasks run on the simulation's
+ * tick loop, and asynchronous tasks run on a thread pool once they are due.
+ * @hidden Internal use only.
+ * */
+class FakeScheduler implements InvocationHandler {
+    private final @NotNull BukkitScheduler proxy = FakeServer.proxy(BukkitScheduler.class, this);
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>(Comparator.comparingLong((Task task) -> task.nextRun).thenComparingInt(task -> task.id));
+    private final ExecutorService async = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "Simulation Async");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long tick;
+    private int nextId = 1;
+
+    @NotNull BukkitScheduler getProxy() {
+        return proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+            case "hashCode":
+            case "toString":
+                return FakeServer.fallback(proxy, method, args);
+            case "runTask": return schedule(method, args, true, 0, -1);
+            case "runTaskLater": return schedule(method, args, true, (Long) args[2], -1);
+            case "runTaskTimer": return schedule(method, args, true, (Long) args[2], (Long) args[3]);
+            case "runTaskAsynchronously": return schedule(method, args, false, 0, -1);
+            case "runTaskLaterAsynchronously": return schedule(method, args, false, (Long) args[2], -1);
+            case "runTaskTimerAsynchronously": return schedule(method, args, false, (Long) args[2], (Long) args[3]);
+            case "scheduleSyncDelayedTask":
+                return schedule((Plugin) args[0], args[1], true, args.length > 2 ? (Long) args[2] : 0, -1).getTaskId();
+            case "scheduleSyncRepeatingTask":
+                return schedule((Plugin) args[0], args[1], true, (Long) args[2], (Long) args[3]).getTaskId();
+            case "getMainThreadExecutor":
+                Plugin plugin = (Plugin) args[0];
+                return (Executor) runnable -> schedule(plugin, runnable, true, 0, -1);
+            case "cancelTask":
+                cancel(task -> task.id == (Integer) args[0]);
+                return null;
+            case "cancelTasks":
+                cancel(task -> task.owner.equals(args[0]));
+                return null;
+            case "isQueued":
+                return tasks.stream().anyMatch(task -> task.id == (Integer) args[0] && !task.cancelled);
+            default:
+                throw new UnsupportedOperationException("The simulation does not support BukkitScheduler#" + method.getName());
+        }
+    }
+
+    /**
+     * Advances the scheduler by a tick, running every synchronous task that is due and submitting every asynchronous one.
+     * */
+    void tick() {
+        tick++;
+        while (!tasks.isEmpty() && tasks.peek().nextRun <= tick) {
+            Task task = tasks.poll();
+            if (task.cancelled) continue;
+            if (task.sync) {
+                task.body.accept(task);
+            } else if (task.running.compareAndSet(false, true)) {
+                async.execute(() -> {
+                    try {
+                        task.body.accept(task);
+                    } finally {
+                        task.running.set(false);
+                    }
+                });
+            }
+
+            if (task.period > 0 && !task.cancelled) {
+                task.nextRun = tick + task.period;
+                tasks.add(task);
+            }
+        }
+    }
+
+    /**
+     * Drops every scheduled task, so a new simulation starts with an empty scheduler.
+     * Asynchronous tasks that are already running are left to finish.
+     * */
+    void clear() {
+        tasks.clear();
+        tick = 0;
+    }
+
+    /**
+     * Schedules the task given to a scheduler method, returning the task only if the method returns one.
+     * The Consumer overloads of the scheduler return nothing.
+     * */
+    private @Nullable Object schedule(@NotNull Method method, Object @NotNull [] args, boolean sync, long delay, long period) {
+        Task task = schedule((Plugin) args[0], args[1], sync, delay, period);
+        return method.getReturnType() == void.class ? null : task;
+    }
+
+    /**
+     * Schedules the given body, which is either a {@link Runnable} or a {@link Consumer} of the scheduled task.
+     * */
+    @SuppressWarnings("unchecked")
+    private @NotNull Task schedule(@NotNull Plugin plugin, @NotNull Object body, boolean sync, long delay, long period) {
+        Consumer<BukkitTask> consumer;
+        if (body instanceof Runnable) {
+            Runnable runnable = (Runnable) body;
+            consumer = task -> runnable.run();
+        } else if (body instanceof Consumer) {
+            consumer = (Consumer<BukkitTask>) body;
+        } else {
+            throw new UnsupportedOperationException("The simulation can't schedule a " + body.getClass().getName());
+        }
+
+        Task task = new Task(nextId++, plugin, consumer, sync, tick + Math.max(1, delay), period);
+        tasks.add(task);
+        return task;
+    }
+
+    private void cancel(@NotNull Predicate<Task> filter) {
+        tasks.removeIf(task -> {
+            if (!filter.test(task)) return false;
+            task.cancel();
+            return true;
+        });
+    }
+
+    /**
+     * A task scheduled with a {@link FakeScheduler}.
+     * */
+    private static class Task implements BukkitTask {
+        private final int id;
+        private final @NotNull Plugin owner;
+        private final @NotNull Consumer<BukkitTask> body;
+        private final boolean sync;
+        private final long period;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private long nextRun;
+        private volatile boolean cancelled;
+
+        private Task(int id, @NotNull Plugin owner, @NotNull Consumer<BukkitTask> body, boolean sync, long nextRun, long period) {
+            this.id = id;
+            this.owner = owner;
+            this.body = body;
+            this.sync = sync;
+            this.nextRun = nextRun;
+            this.period = period;
+        }
+
+        @Override
+        public int getTaskId() {
+            return id;
+        }
+
+        @Override
+        public @NotNull Plugin getOwner() {
+            return owner;
+        }
+
+        @Override
+        public boolean isSync() {
+            return sync;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package io.github.bluelhf.anemone.sim;
+
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * FakeServer is the headless {@link Server} of a {@link Simulation}. It implements only what Anemones uses:
+ * inventories, item metadata, scheduling and event dispatch. Every other method returns a default value.
+ * @hidden Internal use only.
+ * */
+class FakeServer implements InvocationHandler {
+    private final @NotNull Thread mainThread;
+    private final @NotNull Logger logger = Logger.getLogger("Simulation");
+    private final @NotNull FakeScheduler scheduler;
+    private final @NotNull Plugin plugin;
+    private final @NotNull PluginManager pluginManager;
+    private final @NotNull ItemFactory itemFactory;
+    private final List<Listener> listeners = new ArrayList<>();
+    private final HashMap<Class<?>, List<Method>> handlers = new HashMap<>();
+    private final HashMap<String, Long> slotUpdates = new HashMap<>();
+
+    FakeServer(@NotNull File dataFolder) {
+        this.mainThread = Thread.currentThread();
+        this.scheduler = new FakeScheduler();
+        this.plugin = proxy(Plugin.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getDataFolder": return dataFolder;
+                case "getLogger": return logger;
+                case "getName": return "Simulation";
+                case "isEnabled": return true;
+                default: return fallback(proxy, method, args);
+            }
+        });
+        this.pluginManager = proxy(PluginManager.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "registerEvents":
+                    listeners.add((Listener) args[0]);
+                    return null;
+                case "callEvent":
+                    callEvent((Event) args[0]);
+                    return null;
+                default:
+                    return fallback(proxy, method, args);
+            }
+        });
+        this.itemFactory = proxy(ItemFactory.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getItemMeta": return FakeItemMeta.create((Material) args[0]);
+                case "isApplicable": return true;
+                case "asMetaFor": return args[0];
+                case "updateMaterial": return args[1];
+                case "ensureServerConversions": return args[0];
+                case "equals": return args.length == 2
+                        ? FakeItemMeta.equals((ItemMeta) args[0], (ItemMeta) args[1])
+                        : fallback(proxy, method, args);
+                default: return fallback(proxy, method, args);
+            }
+        });
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getLogger": return logger;
+            case "getName": return "Anemone Simulation";
+            case "getVersion":
+            case "getBukkitVersion":
+            case "getMinecraftVersion": return "simulated";
+            case "isPrimaryThread": return Thread.currentThread() == mainThread;
+            case "getScheduler": return scheduler.getProxy();
+            case "getPluginManager": return pluginManager;
+            case "getItemFactory": return itemFactory;
+            case "getOnlinePlayers": return Collections.emptyList();
+            case "createInventory": return createInventory(args);
+            default: return fallback(proxy, method, args);
+        }
+    }
+
+    /**
+     * Returns the plugin that hosts Anemones in the simulation
+     * @return The simulated host plugin
+     * */
+    @NotNull Plugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Returns the scheduler of the simulation
+     * @return The simulated scheduler
+     * */
+    @NotNull FakeScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Resets the listeners, tasks and counters of this server, so it can host another simulation.
+     * */
+    void reset() {
+        listeners.clear();
+        handlers.clear();
+        slotUpdates.clear();
+        scheduler.clear();
+    }
+
+    /**
+     * Counts slot updates for the given label, to be collected by {@link FakeServer#drainSlotUpdates()}.
+     * @param label The label to count the updates for
+     * @param updates The amount of updates
+     * */
+    void countSlotUpdates(@NotNull String label, long updates) {
+        slotUpdates.merge(label, updates, Long::sum);
+    }
+
+    /**
+     * Returns and resets the slot updates counted since the last call.
+     * @return The slot updates per label
+     * */
+    @NotNull HashMap<String, Long> drainSlotUpdates() {
+        HashMap<String, Long> drained = new HashMap<>(slotUpdates);
+        slotUpdates.clear();
+        return drained;
+    }
+
+    /**
+     * Creates a {@link FakeInventory} from the arguments of a {@code Server#createInventory} call.
+     * @hidden Internal use only.
+     * */
+    private @NotNull Inventory createInventory(Object @NotNull [] args) {
+        if (args[1] instanceof InventoryType) {
+            InventoryType type = (InventoryType) args[1];
+            return new FakeInventory(this, type, type.getDefaultSize()).getProxy();
+        }
+        return new FakeInventory(this, InventoryType.CHEST, (Integer) args[1]).getProxy();
+    }
+
+    /**
+     * Calls every {@link EventHandler} of the registered listeners that accepts the given event, like Bukkit would.
+     * @hidden Internal use only.
+     * */
+    private void callEvent(@NotNull Event event) {
+        for (Listener listener : listeners) {
+            List<Method> methods = handlers.computeIfAbsent(listener.getClass(), type -> {
+                List<Method> found = new ArrayList<>();
+                for (Method method : type.getDeclaredMethods()) {
+                    if (method.isAnnotationPresent(EventHandler.class) && method.getParameterCount() == 1) {
+                        method.setAccessible(true);
+                        found.add(method);
+                    }
+                }
+                return found;
+            });
+
+            for (Method method : methods) {
+                if (!method.getParameterTypes()[0].isInstance(event)) continue;
+                try {
+                    method.invoke(listener, event);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                } catch (InvocationTargetException e) {
+                    if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a proxy of the given interface.
+     * @hidden Internal use only.
+     * */
+    static <T> @NotNull T proxy(@NotNull Class<T> type, @NotNull InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(FakeServer.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * Implements the {@link Object} methods of a proxy by identity, and returns a default value for everything else.
+     * @hidden Internal use only.
+     * */
+    static @Nullable Object fallback(@NotNull Object proxy, @NotNull Method method, Object @Nullable [] args) {
+        switch (method.getName()) {
+            case "equals":
+                if (args != null && args.length == 1) return proxy == args[0];
+                break;
+            case "hashCode":
+                if (args == null || args.length == 0) return System.identityHashCode(proxy);
+                break;
+            case "toString":
+                if (args == null || args.length == 0) return method.getDeclaringClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                break;
+        }
+        return defaultValue(method.getReturnType());
+    }
+
+    /**
+     * Returns the default value of the given type, as a field of that type would have.
+     * @hidden Internal use only.
+     * */
+    static @Nullable Object defaultValue(@NotNull Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0F;
+        if (type == double.class) return 0D;
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        return 0;
+    }
+}
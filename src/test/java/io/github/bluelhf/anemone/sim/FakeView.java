@@ -0,0 +1,54 @@
+package io.github.bluelhf.anemone.sim;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * FakeView is the {@link InventoryView} of a {@link SimulatedViewer}, pairing an open inventory with the viewer's own.
+ * @hidden Internal use only.
+ * */
+class FakeView extends InventoryView {
+    private final @NotNull Inventory top;
+    private final @NotNull Inventory bottom;
+    private final @NotNull HumanEntity player;
+
+    FakeView(@NotNull Inventory top, @NotNull Inventory bottom, @NotNull HumanEntity player) {
+        this.top = top;
+        this.bottom = bottom;
+        this.player = player;
+    }
+
+    @Override
+    public @NotNull Inventory getTopInventory() {
+        return top;
+    }
+
+    @Override
+    public @NotNull Inventory getBottomInventory() {
+        return bottom;
+    }
+
+    @Override
+    public @NotNull HumanEntity getPlayer() {
+        return player;
+    }
+
+    @Override
+    public @NotNull InventoryType getType() {
+        return top.getType();
+    }
+
+    @Override
+    public @NotNull String getTitle() {
+        return "";
+    }
+
+    // Not annotated, since whether this is abstract depends on the API version.
+    public @NotNull Component title() {
+        return Component.empty();
+    }
+}
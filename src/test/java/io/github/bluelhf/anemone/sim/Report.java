@@ -0,0 +1,115 @@
+package io.github.bluelhf.anemone.sim;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A Report holds the measurements of a {@link Simulation} run: main-thread time and allocations per tick,
+ * and slot updates per Anemone.
+ * */
+@SuppressWarnings("unused") // API
+public class Report {
+    private final int viewers;
+    private final long @NotNull [] tickNanos;
+    private final long @NotNull [] tickAllocations;
+    private final @NotNull Map<String, Long> slotUpdates;
+
+    Report(int viewers, long @NotNull [] tickNanos, long @NotNull [] tickAllocations, @NotNull Map<String, Long> slotUpdates) {
+        this.viewers = viewers;
+        this.tickNanos = tickNanos;
+        this.tickAllocations = tickAllocations;
+        this.slotUpdates = Collections.unmodifiableMap(new TreeMap<>(slotUpdates));
+    }
+
+    /**
+     * Returns how many viewers took part in the run
+     * @return How many viewers took part in the run
+     * */
+    public int getViewers() {
+        return viewers;
+    }
+
+    /**
+     * Returns how many ticks the run lasted
+     * @return How many ticks the run lasted
+     * */
+    public int getTicks() {
+        return tickNanos.length;
+    }
+
+    /**
+     * Returns the main-thread time of each tick in nanoseconds
+     * @return The main-thread time of each tick in nanoseconds
+     * */
+    public long @NotNull [] getTickNanos() {
+        return tickNanos.clone();
+    }
+
+    /**
+     * Returns the bytes allocated by the main thread on each tick, or -1 for each tick if the JVM can't measure them
+     * @return The bytes allocated by the main thread on each tick
+     * */
+    public long @NotNull [] getTickAllocations() {
+        return tickAllocations.clone();
+    }
+
+    /**
+     * Returns the total slot updates of the run, keyed by Anemone
+     * @return The total slot updates of the run, keyed by Anemone
+     * */
+    public @NotNull Map<String, Long> getSlotUpdates() {
+        return slotUpdates;
+    }
+
+    /**
+     * Returns the given percentile of the main-thread time per tick in nanoseconds
+     * @param percentile The percentile, between 0 and 100
+     * @return The percentile of the main-thread time per tick
+     * */
+    public long getTickNanosPercentile(double percentile) {
+        if (tickNanos.length == 0) return 0;
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Returns the mean main-thread time per tick in nanoseconds
+     * @return The mean main-thread time per tick in nanoseconds
+     * */
+    public double getMeanTickNanos() {
+        return Arrays.stream(tickNanos).average().orElse(0);
+    }
+
+    /**
+     * Returns the mean bytes allocated by the main thread per tick, or -1 if the JVM can't measure them
+     * @return The mean bytes allocated by the main thread per tick
+     * */
+    public double getMeanTickAllocations() {
+        return Arrays.stream(tickAllocations).average().orElse(-1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%d viewers over %d ticks%n", viewers, getTicks()));
+        builder.append(String.format("Main thread per tick: mean %.3f ms, p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                getMeanTickNanos() / 1e6,
+                getTickNanosPercentile(50) / 1e6,
+                getTickNanosPercentile(95) / 1e6,
+                getTickNanosPercentile(99) / 1e6,
+                getTickNanosPercentile(100) / 1e6));
+        builder.append(String.format("Allocated per tick: mean %.1f KiB%n", getMeanTickAllocations() / 1024));
+        builder.append("Slot updates:");
+        for (Map.Entry<String, Long> entry : slotUpdates.entrySet()) {
+            builder.append(String.format("%n  %s: %d total, %.1f per tick",
+                    entry.getKey(), entry.getValue(), entry.getValue() / (double) Math.max(1, getTicks())));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.bluelhf.anemone.sim;
+
+import io.github.bluelhf.anemone.gui.WindowTransport;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+
+/**
+ * SimulatedTransport is the {@link WindowTransport} of a {@link Simulation}. Nothing is sent anywhere;
+ * every sent slot is counted as a slot update of the window.
+ * @hidden Internal use only.
+ * */
+class SimulatedTransport implements WindowTransport {
+    private final @NotNull FakeServer server;
+    private final HashMap<Integer, SlotCounter> windows = new HashMap<>();
+    private int nextWindowId = 1000;
+
+    SimulatedTransport(@NotNull FakeServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Returns the counter of the given window
+     * @param windowId The ID of the window
+     * @return The counter of the window
+     * */
+    @NotNull SlotCounter getCounter(int windowId) {
+        return windows.computeIfAbsent(windowId, id -> new SlotCounter(server));
+    }
+
+    @Override
+    public int open(@NotNull HumanEntity viewer, @Nullable InventoryType type, int size, @Nullable Component title) {
+        return nextWindowId++;
+    }
+
+    @Override
+    public void setContents(@NotNull HumanEntity viewer, int windowId, ItemStack @NotNull [] contents) {
+        getCounter(windowId).count(contents.length);
+    }
+
+    @Override
+    public void setSlot(@NotNull HumanEntity viewer, int windowId, int slot, @Nullable ItemStack item) {
+        getCounter(windowId).count(1);
+    }
+
+    @Override
+    public void close(@NotNull HumanEntity viewer, int windowId) {
+        windows.remove(windowId);
+    }
+
+    /**
+     * Forgets the counter of a window that the client closed.
+     * @param windowId The ID of the window
+     * */
+    void closed(int windowId) {
+        windows.remove(windowId);
+    }
+}
@@ -0,0 +1,211 @@
+package io.github.bluelhf.anemone.sim;
+
+import io.github.bluelhf.anemone.Anemones;
+import io.github.bluelhf.anemone.config.ConfiguredAnemone;
+import io.github.bluelhf.anemone.gui.Anemone;
+import io.github.bluelhf.anemone.gui.InventoryDisplay;
+import io.github.bluelhf.anemone.gui.ViewContext;
+import io.github.bluelhf.anemone.gui.VirtualDisplay;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A SimulatedViewer is a headless player in a {@link Simulation}. It opens, clicks, drags and closes Anemones
+ * through the same events and entry points that a real client would trigger.
+ * */
+@SuppressWarnings("unused") // API
+public class SimulatedViewer {
+    private final @NotNull SimulatedTransport transport;
+    private final @NotNull UUID uuid = UUID.randomUUID();
+    private final @NotNull String name;
+    private final @NotNull Player player;
+    private final @NotNull FakeView craftingView;
+    private @NotNull InventoryView view;
+    private @Nullable ViewContext context;
+
+    SimulatedViewer(@NotNull FakeServer server, @NotNull SimulatedTransport transport, @NotNull String name) {
+        this.transport = transport;
+        this.name = name;
+        this.player = FakeServer.proxy(Player.class, this::invoke);
+        Inventory bottom = new FakeInventory(server, InventoryType.PLAYER, InventoryType.PLAYER.getDefaultSize()).getProxy();
+        Inventory crafting = new FakeInventory(server, InventoryType.CRAFTING, InventoryType.CRAFTING.getDefaultSize()).getProxy();
+        this.craftingView = new FakeView(crafting, bottom, player);
+        this.view = craftingView;
+    }
+
+    /**
+     * Returns the simulated {@link Player} of this SimulatedViewer
+     * @return The simulated Player of this SimulatedViewer
+     * */
+    public @NotNull Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Returns the context that this SimulatedViewer last opened, or null if it has none open
+     * @return The context that this SimulatedViewer last opened, or null if it has none open
+     * */
+    public @Nullable ViewContext getContext() {
+        return context;
+    }
+
+    /**
+     * Returns whether this SimulatedViewer has an Anemone open
+     * @return Whether this SimulatedViewer has an Anemone open
+     * */
+    public boolean isViewing() {
+        return context != null && context.getDisplay().isOpen();
+    }
+
+    /**
+     * Opens a registered Anemone, like {@link Anemones#open(org.bukkit.entity.HumanEntity, Class)}.
+     * @param anemoneClass The class of the Anemone to open
+     * */
+    public void open(@NotNull Class<? extends Anemone> anemoneClass) {
+        opened(Anemones.open(player, anemoneClass));
+    }
+
+    /**
+     * Opens a loaded menu, like {@link Anemones#open(org.bukkit.entity.HumanEntity, String)}.
+     * @param menu The ID of the menu to open
+     * */
+    public void open(@NotNull String menu) {
+        opened(Anemones.open(player, menu));
+    }
+
+    /**
+     * Clicks the given slot of the open Anemone. Does nothing if no Anemone is open.
+     * @param rawSlot The slot to click
+     * @param click The type of the click
+     * */
+    public void click(int rawSlot, @NotNull ClickType click) {
+        if (context == null) return;
+        if (context.getDisplay() instanceof VirtualDisplay) {
+            Anemones.onVirtualClick(player, ((VirtualDisplay) context.getDisplay()).getWindowId(), rawSlot, click);
+            return;
+        }
+        if (view == craftingView) return;
+
+        InventoryType.SlotType slotType = rawSlot < view.getTopInventory().getSize()
+                ? InventoryType.SlotType.CONTAINER
+                : InventoryType.SlotType.QUICKBAR;
+        InventoryAction action = click.isShiftClick() ? InventoryAction.MOVE_TO_OTHER_INVENTORY : InventoryAction.PICKUP_ALL;
+        Bukkit.getPluginManager().callEvent(new InventoryClickEvent(view, slotType, rawSlot, click, action));
+    }
+
+    /**
+     * Drags an item over the given slots of the open Anemone. Does nothing if no inventory-backed Anemone is open.
+     * @param rawSlots The slots to drag over
+     * */
+    public void drag(int @NotNull ... rawSlots) {
+        if (view == craftingView || rawSlots.length == 0) return;
+        Map<Integer, ItemStack> slots = new HashMap<>();
+        for (int rawSlot : rawSlots) {
+            slots.put(rawSlot, new ItemStack(Material.STONE));
+        }
+        Bukkit.getPluginManager().callEvent(new InventoryDragEvent(view, null, new ItemStack(Material.STONE, rawSlots.length), false, slots));
+    }
+
+    /**
+     * Closes the open Anemone, like a client pressing escape. Does nothing if no Anemone is open.
+     * */
+    public void close() {
+        if (context != null && context.getDisplay() instanceof VirtualDisplay) {
+            int windowId = ((VirtualDisplay) context.getDisplay()).getWindowId();
+            Anemones.onVirtualClose(player, windowId);
+            transport.closed(windowId);
+        } else {
+            closeView();
+        }
+        context = null;
+    }
+
+    /**
+     * Labels the display of a newly opened context with its Anemone, so its slot updates are reported per Anemone.
+     * @hidden Internal use only.
+     * */
+    private void opened(@NotNull ViewContext context) {
+        this.context = context;
+        Anemone anemone = context.getAnemone();
+        String label = anemone instanceof ConfiguredAnemone
+                ? "menu:" + ((ConfiguredAnemone) anemone).getDefinition().getId()
+                : anemone.getClass().getSimpleName();
+
+        if (context.getDisplay() instanceof InventoryDisplay) {
+            FakeInventory inventory = FakeInventory.of(((InventoryDisplay) context.getDisplay()).getInventory());
+            if (inventory != null) inventory.getCounter().setLabel(label);
+        } else if (context.getDisplay() instanceof VirtualDisplay) {
+            transport.getCounter(((VirtualDisplay) context.getDisplay()).getWindowId()).setLabel(label);
+        }
+    }
+
+    /**
+     * Opens an inventory like a real server would: the open inventory is closed first, then the new one is opened.
+     * @hidden Internal use only.
+     * */
+    private @Nullable InventoryView openInventory(@NotNull Inventory inventory) {
+        closeView();
+        FakeView opened = new FakeView(inventory, craftingView.getBottomInventory(), player);
+        InventoryOpenEvent event = new InventoryOpenEvent(opened);
+        Bukkit.getPluginManager().callEvent(event);
+        if (event.isCancelled()) return null;
+        view = opened;
+        return view;
+    }
+
+    /**
+     * Closes the open inventory, if any, firing an {@link InventoryCloseEvent}.
+     * @hidden Internal use only.
+     * */
+    private void closeView() {
+        if (view == craftingView) return;
+        InventoryView closed = view;
+        view = craftingView;
+        Bukkit.getPluginManager().callEvent(new InventoryCloseEvent(closed));
+    }
+
+    /**
+     * Implements the simulated {@link Player}.
+     * @hidden Internal use only.
+     * */
+    private @Nullable Object invoke(@NotNull Object proxy, @NotNull Method method, Object @Nullable [] args) {
+        switch (method.getName()) {
+            case "getUniqueId": return uuid;
+            case "getName":
+            case "getDisplayName": return name;
+            case "locale": return Locale.US;
+            case "getLocale": return "en_us";
+            case "isOnline":
+            case "isValid": return true;
+            case "getServer": return Bukkit.getServer();
+            case "getOpenInventory": return view;
+            case "getInventory": return craftingView.getBottomInventory();
+            case "openInventory":
+                if (args != null && args[0] instanceof Inventory) return openInventory((Inventory) args[0]);
+                break;
+            case "closeInventory":
+                closeView();
+                return null;
+        }
+        return FakeServer.fallback(proxy, method, args);
+    }
+}
@@ -0,0 +1,209 @@
+package io.github.bluelhf.anemone.sim;
+
+import io.github.bluelhf.anemone.Anemones;
+import io.github.bluelhf.anemone.gui.Anemone;
+import io.github.bluelhf.anemone.gui.Index;
+import io.github.bluelhf.anemone.gui.ViewContext;
+import io.github.bluelhf.anemone.util.Items;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulation is a headless load-simulation harness for Anemones. It installs a fake server, initialises
+ * {@link Anemones} against it, and drives {@link SimulatedViewer}s through scripted {@link Workload}s on a tick loop,
+ * measuring main-thread time, allocations and slot updates per Anemone.
+ * <p>
+ * Simulation lives in the test sources, so it isn't shipped with Anemone. Run it with the test classpath.
+ * <p>
+ * Only one Simulation may run at a time, and it can't run alongside a real server.
+ * Anemones must be registered after the Simulation is created, and can be configured through {@link Anemones} as usual.
+ * @see Simulation#main(String[])
+ * */
+@SuppressWarnings("unused") // API
+public class Simulation implements AutoCloseable {
+    private static @Nullable FakeServer shared;
+
+    private final @NotNull FakeServer server;
+    private final @NotNull SimulatedTransport transport;
+    private final @NotNull Random random;
+    private final List<SimulatedViewer> viewers = new ArrayList<>();
+    private final List<Workload> workloads = new ArrayList<>();
+    private long tick;
+
+    /**
+     * Creates a new Simulation, installing the fake server on first use and initialising Anemones.
+     * @param seed The seed of the random source passed to workloads
+     * @throws IOException If the temporary data folder couldn't be created
+     * @throws IllegalStateException If Anemones is already initialised, or a real server is running
+     * */
+    public Simulation(long seed) throws IOException {
+        if (Anemones.getInstance() != null)
+            throw new IllegalStateException("Anemones is already initialised, simulations need their own instance.");
+        if (shared == null) {
+            if (Bukkit.getServer() != null) throw new IllegalStateException("Simulations can't run alongside a real server.");
+            shared = new FakeServer(Files.createTempDirectory("anemone-simulation").toFile());
+            Bukkit.setServer(FakeServer.proxy(Server.class, shared));
+        } else {
+            shared.reset();
+        }
+
+        this.server = shared;
+        this.transport = new SimulatedTransport(server);
+        this.random = new Random(seed);
+        Anemones.init(server.getPlugin());
+        Anemones.setTransport(transport);
+    }
+
+    /**
+     * Adds a viewer that runs the given workload on every tick.
+     * @param workload The workload of the viewer
+     * @return The added viewer
+     * */
+    public @NotNull SimulatedViewer addViewer(@NotNull Workload workload) {
+        SimulatedViewer viewer = new SimulatedViewer(server, transport, "Viewer" + viewers.size());
+        viewers.add(viewer);
+        workloads.add(workload);
+        return viewer;
+    }
+
+    /**
+     * Runs the given amount of ticks. Each tick runs the due scheduler tasks, then the workload of every viewer.
+     * @param ticks The amount of ticks to run
+     * @return The measurements of the run
+     * */
+    public @NotNull Report run(int ticks) {
+        long[] tickNanos = new long[ticks];
+        long[] tickAllocations = new long[ticks];
+        HashMap<String, Long> slotUpdates = new HashMap<>();
+        server.drainSlotUpdates();
+
+        for (int i = 0; i < ticks; i++) {
+            tick++;
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+
+            server.getScheduler().tick();
+            for (int v = 0; v < viewers.size(); v++) {
+                workloads.get(v).tick(viewers.get(v), tick, random);
+            }
+
+            tickNanos[i] = System.nanoTime() - start;
+            tickAllocations[i] = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+            server.drainSlotUpdates().forEach((label, updates) -> slotUpdates.merge(label, updates, Long::sum));
+        }
+
+        return new Report(viewers.size(), tickNanos, tickAllocations, slotUpdates);
+    }
+
+    /**
+     * Disables the simulated host plugin, which closes Anemones.
+     * */
+    @Override
+    public void close() {
+        Bukkit.getPluginManager().callEvent(new PluginDisableEvent(server.getPlugin()));
+        server.reset();
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread so far, or -1 if the JVM can't measure them.
+     * @hidden Internal use only.
+     * */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+        return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Runs a sample workload against a paged menu and prints the report.
+     * Arguments are the amount of viewers (500 by default) and ticks (1200 by default).
+     * @param args The command line arguments
+     * @throws IOException If the simulation couldn't be created
+     * */
+    public static void main(String[] args) throws IOException {
+        int viewers = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 1200;
+        try (Simulation simulation = new Simulation(42)) {
+            Anemones.register(SampleAnemone.class);
+            for (int i = 0; i < viewers; i++) {
+                simulation.addViewer(Workload.browsing(SampleAnemone.class, 0.05, 0.2, 0.005));
+            }
+            System.out.println(simulation.run(ticks));
+        }
+    }
+
+    /**
+     * A paged menu with a border, 28 entries per page, and navigation arrows.
+     * */
+    public static class SampleAnemone extends Anemone {
+        private static final List<String> TEMPLATE = List.of(
+                "#########",
+                "#xxxxxxx#",
+                "#xxxxxxx#",
+                "#xxxxxxx#",
+                "#xxxxxxx#",
+                "#<#####>#"
+        );
+        private final ItemStack border = Items.of(Material.BLACK_STAINED_GLASS_PANE).build();
+
+        @Override
+        public @NotNull List<String> getTemplate() {
+            return TEMPLATE;
+        }
+
+        @Override
+        public @NotNull ItemStack itemFor(Index index, ViewContext context) {
+            switch (index.getChar()) {
+                case 'x':
+                    return Items.of(Material.PAPER)
+                            .name(Component.text("Entry " + index.getCharIndex()), context.getLocale())
+                            .build();
+                case '<':
+                    return Items.of(Material.ARROW).name(Component.text("Previous"), context.getLocale()).build();
+                case '>':
+                    return Items.of(Material.ARROW).name(Component.text("Next"), context.getLocale()).build();
+                default:
+                    return border;
+            }
+        }
+
+        @Override
+        public @Nullable Component getTitle() {
+            return Component.text("Sample");
+        }
+
+        @Override
+        protected void onRawClick(ViewContext context, InventoryClickEvent event) {
+            event.setCancelled(true);
+        }
+
+        @Override
+        protected void onClick(Index index, ViewContext context, ClickType click) {
+            if (index.getChar() == '<') context.previous();
+            else if (index.getChar() == '>') context.next();
+        }
+
+        @Override
+        protected void onDrag(List<Index> indices, ViewContext context, InventoryDragEvent event) {
+            event.setCancelled(true);
+        }
+    }
+}
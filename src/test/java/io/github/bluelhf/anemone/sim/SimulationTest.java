@@ -0,0 +1,32 @@
+package io.github.bluelhf.anemone.sim;
+
+import io.github.bluelhf.anemone.Anemones;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Smoke test that runs the sample {@link Simulation} end to end.
+ * */
+class SimulationTest {
+
+    @Test
+    void sampleRunUpdatesSlots() throws IOException {
+        Report report;
+        try (Simulation simulation = new Simulation(42)) {
+            Anemones.register(Simulation.SampleAnemone.class);
+            for (int i = 0; i < 50; i++) {
+                simulation.addViewer(Workload.browsing(Simulation.SampleAnemone.class, 0.2, 0.3, 0.01));
+            }
+            report = simulation.run(300);
+        }
+
+        assertEquals(300, report.getTicks());
+        assertTrue(report.getSlotUpdates().getOrDefault("SampleAnemone", 0L) > 0, "The sample menu rendered no slots");
+        assertNull(Anemones.getInstance(), "Closing the simulation should close Anemones");
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.bluelhf.anemone.sim;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * SlotCounter counts the slot updates of a single inventory or virtual window, and reports them to the
+ * {@link FakeServer} under the label of the Anemone it shows. Updates made before the label is known are held
+ * until it is set.
+ * @hidden Internal use only.
+ * */
+class SlotCounter {
+    private final @NotNull FakeServer server;
+    private @Nullable String label;
+    private long unlabeled;
+
+    SlotCounter(@NotNull FakeServer server) {
+        this.server = server;
+    }
+
+    void count(long updates) {
+        if (updates == 0) return;
+        if (label == null) {
+            unlabeled += updates;
+        } else {
+            server.countSlotUpdates(label, updates);
+        }
+    }
+
+    void setLabel(@NotNull String label) {
+        this.label = label;
+        count(unlabeled);
+        unlabeled = 0;
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.bluelhf.anemone.sim;
+
+import io.github.bluelhf.anemone.gui.Anemone;
+import io.github.bluelhf.anemone.gui.ViewContext;
+import org.bukkit.event.inventory.ClickType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * A Workload scripts what a {@link SimulatedViewer} does on each tick of a {@link Simulation}.
+ * */
+@FunctionalInterface
+public interface Workload {
+
+    /**
+     * Runs this Workload for a viewer on a tick.
+     * @param viewer The viewer to act as
+     * @param tick The current tick, starting from 1
+     * @param random The random source of the simulation
+     * */
+    void tick(@NotNull SimulatedViewer viewer, long tick, @NotNull Random random);
+
+    /**
+     * Creates a Workload that browses the given Anemone: a viewer that isn't viewing it opens it with the given chance,
+     * and a viewer that is viewing it either closes it or clicks a random slot with the given chances.
+     * Clicks are spread over left, right and shift clicks.
+     * @param anemoneClass The class of the Anemone to browse. Must be registered.
+     * @param openChance The chance of opening the Anemone on a tick
+     * @param clickChance The chance of clicking a slot on a tick
+     * @param closeChance The chance of closing the Anemone on a tick
+     * @return The created Workload
+     * */
+    static @NotNull Workload browsing(@NotNull Class<? extends Anemone> anemoneClass, double openChance, double clickChance, double closeChance) {
+        ClickType[] clicks = {ClickType.LEFT, ClickType.RIGHT, ClickType.SHIFT_LEFT};
+        return (viewer, tick, random) -> {
+            ViewContext context = viewer.getContext();
+            if (!viewer.isViewing() || context == null) {
+                if (random.nextDouble() < openChance) viewer.open(anemoneClass);
+            } else if (random.nextDouble() < closeChance) {
+                viewer.close();
+            } else if (random.nextDouble() < clickChance) {
+                viewer.click(random.nextInt(context.getAnemone().getSize()), clicks[random.nextInt(clicks.length)]);
+            }
+        };
+    }
+}